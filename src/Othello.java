@@ -1,17 +1,30 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jdk.jfr.FlightRecorder;
 
 // start for white: ./othellostart /home/salome/Documents/othello/src/othello.sh ./othello_naive 5
 // start for black: ./othellostart ./othello_naive /home/salome/Documents/othello/src/othello.sh 5
 
 public class Othello {
 
+    /**
+     * True if the flight recorder was started with the JVM. The events are only created when it is: loading the
+     * first event class starts up the flight recorder, which takes longer than the rest of the start of a move.
+     */
+    static final boolean RECORDING = FlightRecorder.isInitialized();
+
     public static void main(String[] args) throws InterruptedException {
         // get / set input arguments
         String board;
         int limit;
-        if (args.length < 2 || args[0].length() != 65) {
-            System.out.println("Two arguments are required. The first should be a string of length 65 representing the " +
-                    "board, the second the time limit in seconds.\n" +
+        if (args.length < 2 || (args[0].length() != 65 && args[0].length() != 37)) {
+            System.out.println("Two arguments are required. The first should be a string of length 65 (37 for 6x6) " +
+                    "representing the board, the second the time limit in seconds.\n" +
                     "Setting board to initial state, time limit to 5.");
             board = "WEEEEEEEEEEEEEEEEEEEEEEEEEEEOXEEEEEEXOEEEEEEEEEEEEEEEEEEEEEEEEEEE";
             limit = 5;
@@ -19,7 +32,8 @@ public class Othello {
             board = args[0];
             limit = Integer.parseInt(args[1]);
         }
-        long endTime = System.currentTimeMillis() + limit * 950L; // timestamp of when the algorithm should terminate
+        long startTime = System.currentTimeMillis();
+        long endTime = startTime + limit * 950L; // timestamp of when the algorithm should terminate
 
         // initialise Othello
         OthelloPosition position = new OthelloPosition(board);
@@ -28,33 +42,149 @@ public class Othello {
         // OthelloEvaluator evaluator = new OthelloEvaluatorMoves();
         // OthelloEvaluator evaluator = new OthelloEvaluatorCount();
 
-        OthelloAlgorithm algorithm = new OthelloAlgorithmAlphaBeta(evaluator);
+        // -Dothello.algorithm=mcts selects Monte Carlo tree search
+        OthelloAlgorithm algorithm;
+        if ("mcts".equals(System.getProperty("othello.algorithm"))) {
+            // a tree for this move only, every move runs in a new JVM
+            int threads = Runtime.getRuntime().availableProcessors();
+            algorithm = new OthelloAlgorithmMCTS(OthelloAlgorithmMCTS.nodesFor(endTime - startTime, threads), threads);
+        } else {
+            algorithm = new OthelloAlgorithmAlphaBeta(evaluator, openCache(evaluator));
+        }
         algorithm.setPlayer(board.charAt(0) == 'W');
 
-        // depth 1 can/must always be executed
-        int depth = 1;
-        algorithm.setSearchDepth(depth);
-        OthelloAction action = algorithm.searchAction(position);
+        // -Dothello.telemetry=<file> appends a line of telemetry per move to the file
+        String telemetryFile = System.getProperty("othello.telemetry");
+        OthelloMoveTelemetry telemetry = telemetryFile == null || telemetryFile.isEmpty() ? null
+                : new OthelloMoveTelemetry();
 
-        // start iterative deepening
         final ExecutorService service = Executors.newSingleThreadExecutor();
-        // update the remaining time
-        long remainingTime = endTime - System.currentTimeMillis();
+        OthelloAction action = iterativeDeepening(algorithm, position, endTime, service, telemetry);
+        // shut down the service
+        service.shutdownNow();
 
-        // then go as deep as possible
-        while (remainingTime > 0) {
+        // print the action
+        action.print();
+
+        if (telemetry != null) {
+            telemetry.limit = limit * 1000L;
+            telemetry.startup = startTime - ManagementFactory.getRuntimeMXBean().getStartTime();
+            try {
+                telemetry.append(Paths.get(telemetryFile));
+            } catch (IOException e) {
+                // the move is already played, only the telemetry is lost
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Opens the on-disk transposition table given by the system property othello.cache, with
+     * othello.cacheSize entries (default 2^20, 16 MB). The searches of earlier processes are kept in the file.
+     *
+     * @return the table, or null if no cache is configured or it can not be opened
+     */
+    static OthelloTranspositionTable openCache(OthelloEvaluator evaluator) {
+        String file = System.getProperty("othello.cache");
+        if (file == null || file.isEmpty()) {
+            return null;
+        }
+        int size = Integer.getInteger("othello.cacheSize", 1 << 20);
+        try {
+            return new OthelloTranspositionTableMapped(Paths.get(file), size, evaluator.tag());
+        } catch (IOException | RuntimeException e) {
+            // search without the cache rather than not at all
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Search the position with increasing depth, until the end time is reached. Every depth is searched as a task
+     * on the given executor; when the time is up the running search is interrupted. If not even depth 1 finished in
+     * time, the first legal move is returned.
+     *
+     * @param algorithm the algorithm, with the player already set
+     * @param position  the position to search
+     * @param endTime   timestamp of when the search should terminate
+     * @param service   executor running the searches
+     * @return the best action found
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public static OthelloAction iterativeDeepening(OthelloAlgorithm algorithm, OthelloPosition position, long endTime,
+                                                   ExecutorService service) throws InterruptedException {
+        return iterativeDeepening(algorithm, position, endTime, service, null);
+    }
+
+    /**
+     * Search the position with increasing depth, until the end time is reached, and record the depth, nodes and
+     * times of the move in the telemetry.
+     *
+     * @param telemetry the telemetry of the move, filled in except for the limit and startup; may be null
+     * @see #iterativeDeepening(OthelloAlgorithm, OthelloPosition, long, ExecutorService)
+     */
+    public static OthelloAction iterativeDeepening(OthelloAlgorithm algorithm, OthelloPosition position, long endTime,
+                                                   ExecutorService service, OthelloMoveTelemetry telemetry)
+            throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        int interruptedDepth = 0;
+        long latency = 0;
+        // created before searching: the first event loads the flight recorder classes, which takes long enough to
+        // overrun the time limit when it happens after the timeout
+        OthelloTimeoutEvent timeout = RECORDING ? new OthelloTimeoutEvent() : null;
+
+        OthelloAction action = null;
+        int depth = 0;
+        int completedDepth = 0;
+        long remainingTime = endTime - startTime;
+
+        // go as deep as possible; depth 1 is always submitted, like the deeper searches it runs on the executor, so
+        // that the number of searching threads stays bounded and waiting for it ends with the time
+        do {
 
             // increase the search depth
             algorithm.setSearchDepth(++depth);
-            // create a thread for the search algorithm
-            final Future<OthelloAction> search = service.submit(() -> (algorithm.searchAction(position)));
+            // create a task for the search algorithm, it does not start if it is cancelled while still queued
+            final AtomicBoolean started = new AtomicBoolean();
+            final CountDownLatch done = new CountDownLatch(1);
+            final Future<OthelloAction> search = service.submit(() -> {
+                if (!started.compareAndSet(false, true)) {
+                    return null;
+                }
+                try {
+                    return algorithm.searchAction(position);
+                } finally {
+                    done.countDown();
+                }
+            });
 
             try {
                 // get the result of the search, continue in this thread after remainingTime Milliseconds
-                action = search.get(remainingTime, TimeUnit.MILLISECONDS);
+                action = search.get(Math.max(remainingTime, 0), TimeUnit.MILLISECONDS);
+                completedDepth = depth;
             } catch (TimeoutException e) {
-                // interrupt the search algorithm
-                algorithm.interrupt();
+                boolean running = !started.compareAndSet(false, true);
+                if (running) {
+                    // interrupt the search algorithm, also through the thread in case it has not started searching
+                    long interruptTime = System.nanoTime();
+                    algorithm.interrupt();
+                    search.cancel(true);
+                    done.await();
+                    latency = (System.nanoTime() - interruptTime) / 1000;
+                    interruptedDepth = depth;
+                }
+                // the aborted search already searched the previous best action, any better move it found is kept;
+                // a search that never started leaves the best action of an earlier position
+                OthelloAction best = running ? algorithm.getBestAction() : null;
+                if (best != null) {
+                    action = best;
+                }
+                if (timeout != null && timeout.shouldCommit()) {
+                    timeout.depth = depth;
+                    timeout.completedDepth = completedDepth;
+                    timeout.keptPartialResult = best != null;
+                    timeout.commit();
+                }
             } catch (ExecutionException e) {
                 // This may occur if something else in the get() does not go as expected
                 e.printStackTrace();
@@ -62,13 +192,28 @@ public class Othello {
 
             // update the remaining time
             remainingTime = endTime - System.currentTimeMillis();
+        } while (remainingTime > 0);
+
+        if (action == null) {
+            // not even depth 1 finished in time, e.g. since all workers were busy: play any legal move
+            List<OthelloAction> moves = position.getMoves();
+            action = moves.isEmpty() ? new OthelloAction("pass") : moves.get(0);
         }
-        // shut down the service
-        service.shutdownNow();
 
         // System.err.println("Interrupted at depth " + depth); // debug print
 
-        // print the action
-        action.print();
+        if (telemetry != null) {
+            telemetry.position = position.toString();
+            OthelloBitboard board = OthelloBitboard.of(position.getSize());
+            telemetry.empties = Long.bitCount(board.full()
+                    & ~(OthelloBitboard.discs(position, true) | OthelloBitboard.discs(position, false)));
+            telemetry.depth = completedDepth;
+            telemetry.interrupted = interruptedDepth;
+            telemetry.nodes = algorithm.getTotalNodes();
+            telemetry.time = System.currentTimeMillis() - startTime;
+            telemetry.budget = endTime - startTime;
+            telemetry.latency = latency;
+        }
+        return action;
     }
 }
@@ -1,3 +1,5 @@
+import java.util.LinkedList;
+
 
 /**
  * This class represents a 'move' in a game. The move is simply represented by
@@ -22,6 +24,9 @@ public class OthelloAction {
     /** True if the player has to pass, i.e., if there is no legal move. */
     protected boolean pass = false;
 
+    /** The expected continuation of the game, starting with this move. May be null. */
+    protected LinkedList<OthelloAction> variation;
+
     /**
      * Creates a new <code>OthelloAction</code> with row <code>r</code>, column
      * <code>c</code>, and value 0.
@@ -98,6 +103,21 @@ public class OthelloAction {
         return pass;
     }
 
+    /** Sets the principal variation, the expected moves starting with this one. */
+    public void setVariation(LinkedList<OthelloAction> v) {
+        variation = v;
+    }
+
+    /** Returns the principal variation, or null if it is unknown. */
+    public LinkedList<OthelloAction> getVariation() {
+        return variation;
+    }
+
+    /** Returns the move as it is printed, e.g. "(3,5)" or "pass". */
+    public String toString() {
+        return pass ? "pass" : "(" + row + "," + column + ")";
+    }
+
     public void print() {
         if (pass) {
             System.out.println("pass");
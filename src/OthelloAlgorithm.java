@@ -32,4 +32,22 @@ public interface OthelloAlgorithm {
 
 	/** set the boolean interrupt to true, to interrupt the search*/
 	void interrupt();
+
+	/**
+	 * Returns the best move found so far by the running search, or null if the
+	 * search has not yet completed the move that was best in the previous
+	 * search. The value of the move is only comparable to the other moves of
+	 * the same search.
+	 */
+	OthelloAction getBestAction();
+
+	/** Returns the number of nodes visited by the last search. */
+	long getNodes();
+
+	/**
+	 * Returns the number of nodes visited by all searches of the current root
+	 * position, the last one included. Algorithms keeping results between the
+	 * searches of a position visit fewer nodes per search, this counts them all.
+	 */
+	long getTotalNodes();
 }
\ No newline at end of file
@@ -1,3 +1,5 @@
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.LinkedList;
 
 /**
@@ -17,12 +19,86 @@ public class OthelloAlgorithmAlphaBeta implements OthelloAlgorithm {
     OthelloEvaluator evaluator;
     int depth;
     protected boolean maxPlayer;
-    protected boolean interrupted = false;
+    protected volatile boolean interrupted = false;
+
+    /** The best move of the last completed search, it is searched first in the next search */
+    protected OthelloAction previousBest;
+
+    /** The best move of the running search, updated whenever a root move completes */
+    protected volatile OthelloAction bestAction;
+
+    /**
+     * Static move ordering: corners first, then edges and the inner squares, X-squares (diagonally next to a
+     * corner) last.
+     */
+    private static final int[] SQUARE_PRIORITY = {
+            0, 7, 2, 3, 3, 2, 7, 0,
+            7, 9, 6, 5, 5, 6, 9, 7,
+            2, 6, 4, 4, 4, 4, 6, 2,
+            3, 5, 4, 1, 1, 4, 5, 3,
+            3, 5, 4, 1, 1, 4, 5, 3,
+            2, 6, 4, 4, 4, 4, 6, 2,
+            7, 9, 6, 5, 5, 6, 9, 7,
+            0, 7, 2, 3, 3, 2, 7, 0,
+    };
+    private static final Comparator<OthelloAction> SQUARE_ORDER =
+            Comparator.comparingInt(action -> SQUARE_PRIORITY[OthelloTranspositionEntry.square(action)]);
+
+    /** The static move ordering of the 6x6 board. */
+    private static final int[] SMALL_SQUARE_PRIORITY = {
+            0, 7, 2, 2, 7, 0,
+            7, 9, 6, 6, 9, 7,
+            2, 6, 1, 1, 6, 2,
+            2, 6, 1, 1, 6, 2,
+            7, 9, 6, 6, 9, 7,
+            0, 7, 2, 2, 7, 0,
+    };
+    private static final Comparator<OthelloAction> SMALL_SQUARE_ORDER = Comparator.comparingInt(action ->
+            SMALL_SQUARE_PRIORITY[(action.getRow() - 1) * OthelloPosition.SMALL_BOARD_SIZE + action.getColumn() - 1]);
+
+    /** Moves of a node after the first reductionMoves are searched with depth reduced by reduction, 0 disables it */
+    protected int reductionMoves = 0;
+    protected int reduction = 1;
+
+    /** True if forced moves and corner moves are searched one ply deeper, off by default */
+    protected boolean extensions = false;
+
+    /** True if the leaf children of a frontier node are evaluated together, when the evaluator supports it */
+    protected boolean batchEvaluation = true;
+
+    /** The children of the frontier nodes the search is in, the last one is the node of the deepest level */
+    private final ArrayList<OthelloChildren> frontier = new ArrayList<>();
+    private int frontierLevel;
+    private final boolean[] leaves = new boolean[OthelloChildren.MAX_CHILDREN];
+
+    /** Table of already searched positions, may be null */
+    protected OthelloTranspositionTable table;
+
+    /** The best moves of the last completed multi-PV search, they are searched first in the next one */
+    protected LinkedList<OthelloAction> previousActions;
+
+    /** Number of nodes visited and positions evaluated by the current search */
+    protected long nodes;
+    protected long evaluations;
+
+    /** Number of nodes visited by the earlier searches of the root position */
+    private long rootNodes;
+
+    /** Started by <code>interrupt</code>, committed when the search has stopped */
+    private volatile OthelloInterruptEvent interruptEvent;
+
+    /** Hash of the position searched last */
+    private long rootHash;
 
     public OthelloAlgorithmAlphaBeta(OthelloEvaluator evaluator) {
         setEvaluator(evaluator);
     }
 
+    public OthelloAlgorithmAlphaBeta(OthelloEvaluator evaluator, OthelloTranspositionTable table) {
+        setEvaluator(evaluator);
+        setTranspositionTable(table);
+    }
+
     /**
      * Sets the <code>OthelloEvaluator</code> the algorithm is to use for
      * heuristic evaluation.
@@ -31,6 +107,41 @@ public class OthelloAlgorithmAlphaBeta implements OthelloAlgorithm {
         this.evaluator = evaluator;
     }
 
+    /**
+     * Sets the transposition table the algorithm stores searched positions in. It may be shared with other
+     * algorithms using the same evaluator. Set to null to search without a table.
+     */
+    public void setTranspositionTable(OthelloTranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Configures late move reductions: at every node, the moves after the first <code>moves</code> ones are
+     * searched with their depth reduced by <code>reduction</code>, and again with full depth only if they turn out
+     * better than the best move so far. Set moves to 0 to search all moves with full depth, the default. Multi-PV
+     * searches never reduce, since their values must be exact.
+     */
+    public void setLateMoveReductions(int moves, int reduction) {
+        this.reductionMoves = moves;
+        this.reduction = reduction;
+    }
+
+    /**
+     * Sets whether forced sequences are extended: the only move of a position, and moves taking a corner, are
+     * searched without using up depth.
+     */
+    public void setExtensions(boolean extensions) {
+        this.extensions = extensions;
+    }
+
+    /**
+     * Sets whether the children of a frontier node (depth 1) that are leaves are evaluated in one call of the
+     * evaluator. Evaluators that do not support it evaluate them one by one either way.
+     */
+    public void setBatchEvaluation(boolean batchEvaluation) {
+        this.batchEvaluation = batchEvaluation;
+    }
+
     /**
      * Sets the current player.
      */
@@ -43,8 +154,251 @@ public class OthelloAlgorithmAlphaBeta implements OthelloAlgorithm {
      * best move, using alpha-beta pruning.
      */
     public OthelloAction searchAction(OthelloPosition position) throws InterruptedException {
+        startSearch(position);
+        OthelloIterationEvent event = beginIteration();
+        OthelloAction action = null;
+        try {
+            action = maxPlayer ? initialMaxValue(position) : initialMinValue(position);
+        } catch (InterruptedException e) {
+            commitInterrupt();
+            throw e;
+        } finally {
+            commitIteration(event, action);
+        }
+        previousBest = action;
+        return action;
+    }
+
+    /**
+     * Returns the best k moves of the position, from best to worst, each with its exact value and its principal
+     * variation. All moves are searched in one pass: a move only needs an exact value if it beats the k-th best
+     * value found so far, so that value is used as the bound of the search window. The principal variations are
+     * read from the transposition table; without a table they only contain the move itself.
+     *
+     * @param position the position to search, with the player set by <code>setPlayer</code>
+     * @param k        the number of moves to return, at least 1
+     * @return at most k moves, or a single pass action
+     * @throws InterruptedException     if the time is up
+     * @throws IllegalArgumentException if k is less than 1
+     */
+    public LinkedList<OthelloAction> searchActions(OthelloPosition position, int k) throws InterruptedException {
+        if (k < 1) {
+            throw new IllegalArgumentException("At least one move must be searched, not " + k);
+        }
+        startSearch(position);
+        OthelloIterationEvent event = beginIteration();
+        LinkedList<OthelloAction> best = null;
+        // a reduced search could miss one of the k best moves, or return an inexact value for it
+        int moves = reductionMoves;
+        reductionMoves = 0;
+        try {
+            best = multiPV(position, k);
+        } catch (InterruptedException e) {
+            commitInterrupt();
+            throw e;
+        } finally {
+            reductionMoves = moves;
+            commitIteration(event, best == null ? null : best.getFirst());
+        }
+        previousActions = best;
+        return best;
+    }
+
+    /**
+     * Multi-PV search of the root position, see <code>searchActions</code>.
+     */
+    private LinkedList<OthelloAction> multiPV(OthelloPosition position, int k) throws InterruptedException {
+        LinkedList<OthelloAction> best = new LinkedList<>();
+
+        LinkedList<OthelloAction> moves = position.getMoves();
+        if (moves.size() == 0) {
+            best.add(new OthelloAction("pass"));
+            return best;
+        }
+
+        // search the best moves of the previous search first, in their order
+        if (previousActions != null) {
+            for (int i = previousActions.size() - 1; i >= 0; i--) {
+                orderFirst(moves, OthelloTranspositionEntry.square(previousActions.get(i)));
+            }
+        }
+
+        for (OthelloAction move : moves) {
+            try {
+                OthelloPosition new_position = position.makeMove(move);
+                int value;
+                if (maxPlayer) {
+                    // the k-th best value so far is the lower bound a move has to beat
+                    int bound = best.size() < k ? Integer.MIN_VALUE : best.getLast().getValue();
+                    value = minValue(new_position, bound, Integer.MAX_VALUE, depth - 1);
+                    if (value <= bound) {
+                        continue;
+                    }
+                } else {
+                    int bound = best.size() < k ? Integer.MAX_VALUE : best.getLast().getValue();
+                    value = maxValue(new_position, Integer.MIN_VALUE, bound, depth - 1);
+                    if (value >= bound) {
+                        continue;
+                    }
+                }
+
+                // insert the move in order
+                OthelloAction action = new OthelloAction(move.getRow(), move.getColumn());
+                action.setValue(value);
+                int index = 0;
+                for (OthelloAction other : best) {
+                    if (maxPlayer ? value > other.getValue() : value < other.getValue()) {
+                        break;
+                    }
+                    index++;
+                }
+                best.add(index, action);
+                if (best.size() > k) {
+                    best.removeLast();
+                }
+            } catch (IllegalMoveException e) {
+                // makeMove could throw an exception TODO: how to handle exception
+                e.printStackTrace();
+            }
+        }
+
+        for (OthelloAction action : best) {
+            action.setVariation(variation(position, action));
+        }
+        return best;
+    }
+
+    /**
+     * Follow the best moves stored in the transposition table, starting with the given action.
+     *
+     * @return the principal variation, at most as long as the search depth
+     */
+    private LinkedList<OthelloAction> variation(OthelloPosition position, OthelloAction first) {
+        LinkedList<OthelloAction> line = new LinkedList<>();
+        line.add(first);
+        try {
+            position = position.makeMove(first);
+            while (table != null && line.size() < depth) {
+                LinkedList<OthelloAction> moves = position.getMoves();
+                if (moves.size() == 0) {
+                    position.nextMove();
+                    if (position.getMoves().size() == 0) {
+                        // the game is over
+                        break;
+                    }
+                    line.add(new OthelloAction("pass"));
+                    continue;
+                }
+                long entry = table.probe(position.hash());
+                if (entry == 0 || OthelloTranspositionEntry.bound(entry) != OthelloTranspositionEntry.EXACT
+                        || !orderFirst(moves, OthelloTranspositionEntry.move(entry))) {
+                    break;
+                }
+                line.add(moves.getFirst());
+                position = position.makeMove(moves.getFirst());
+            }
+        } catch (IllegalMoveException e) {
+            e.printStackTrace();
+        }
+        return line;
+    }
+
+    /**
+     * Start the event of a search, if the flight recorder is recording.
+     *
+     * @return the started event, or null
+     */
+    private static OthelloIterationEvent beginIteration() {
+        if (!Othello.RECORDING) {
+            return null;
+        }
+        OthelloIterationEvent event = new OthelloIterationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Record the end of a search in the flight recorder, if it is recording.
+     *
+     * @param event  the event of <code>beginIteration</code>, or null
+     * @param action the result of the search, or null if it was interrupted
+     */
+    private void commitIteration(OthelloIterationEvent event, OthelloAction action) {
+        if (event != null && event.shouldCommit()) {
+            OthelloAction best = action == null ? bestAction : action;
+            event.depth = depth;
+            event.nodes = nodes;
+            event.evaluations = evaluations;
+            event.bestMove = best == null ? null : best.toString();
+            event.value = best == null ? 0 : best.getValue();
+            event.completed = action != null;
+            event.commit();
+        }
+    }
+
+    /**
+     * Record that the search has stopped after <code>interrupt</code> was called.
+     */
+    private void commitInterrupt() {
+        OthelloInterruptEvent event = interruptEvent;
+        interruptEvent = null;
+        if (event != null && event.shouldCommit()) {
+            event.depth = depth;
+            event.nodes = nodes;
+            event.commit();
+        }
+    }
+
+    /**
+     * Reset the state of the previous search.
+     */
+    private void startSearch(OthelloPosition position) {
         interrupted = false;
-        return maxPlayer ? initialMaxValue(position) : initialMinValue(position);
+        interruptEvent = null;
+        bestAction = null;
+        evaluations = 0;
+        frontierLevel = 0;
+        if (position.hash() != rootHash) {
+            rootHash = position.hash();
+            rootNodes = 0;
+            if (table != null) {
+                // a new root position, entries of the previous one age
+                table.newSearch();
+                previousActions = null;
+            }
+        } else {
+            rootNodes += nodes;
+        }
+        nodes = 0;
+    }
+
+    /**
+     * Returns the best move of the running search. It is only set once the best move of the previous search has been
+     * searched again, so it is at least as good as that move at the current depth.
+     */
+    public OthelloAction getBestAction() {
+        return bestAction;
+    }
+
+    /**
+     * Move the best action of the previous search to the front of the list, so that it is searched first.
+     * @param moves the moves of the root position
+     * @return true if the previous best action is part of the moves
+     */
+    private boolean orderPreviousBest(LinkedList<OthelloAction> moves) {
+        if (previousBest == null || previousBest.isPassMove()) {
+            return false;
+        }
+        return orderFirst(moves, OthelloTranspositionEntry.square(previousBest));
+    }
+
+    /**
+     * Publish a copy of the current best root action, which can be read while the search is running.
+     */
+    private void publishBestAction(OthelloAction action) {
+        OthelloAction best = new OthelloAction(action.getRow(), action.getColumn());
+        best.setValue(action.getValue());
+        bestAction = best;
     }
 
     /**
@@ -61,6 +415,8 @@ public class OthelloAlgorithmAlphaBeta implements OthelloAlgorithm {
         if (moves.size() == 0) {
             return new OthelloAction("pass");
         }
+        moves.sort(squareOrder(position));
+        boolean ordered = orderPreviousBest(moves);
 
         OthelloAction action = new OthelloAction(-1, -1);
         action.setValue(Integer.MIN_VALUE);
@@ -88,6 +444,9 @@ public class OthelloAlgorithmAlphaBeta implements OthelloAlgorithm {
                     if (alpha < newValue) {
                         alpha = newValue;
                     }
+                    if (ordered) {
+                        publishBestAction(action);
+                    }
                 }
             } catch (IllegalMoveException e) {
                 // makeMove could throw an exception TODO: how to handle exception
@@ -112,6 +471,8 @@ public class OthelloAlgorithmAlphaBeta implements OthelloAlgorithm {
         if (moves.size() == 0) {
             return new OthelloAction("pass");
         }
+        moves.sort(squareOrder(position));
+        boolean ordered = orderPreviousBest(moves);
 
         OthelloAction action = new OthelloAction(-1, -1);
         action.setValue(Integer.MAX_VALUE);
@@ -139,6 +500,9 @@ public class OthelloAlgorithmAlphaBeta implements OthelloAlgorithm {
                     if (beta > newValue) {
                         beta = newValue;
                     }
+                    if (ordered) {
+                        publishBestAction(action);
+                    }
                 }
             } catch (IllegalMoveException e) {
                 // makeMove could throw an exception TODO: how to handle exception
@@ -161,14 +525,40 @@ public class OthelloAlgorithmAlphaBeta implements OthelloAlgorithm {
      * @throws InterruptedException if the time is up
      */
     private int maxValue(OthelloPosition position, int alpha, int beta, int depth) throws InterruptedException {
-        if (interrupted) {
-            throw new InterruptedException();
-        }
+        checkInterrupted();
+        nodes++;
         if (depth == 0) {
             // if depth is reached return heuristic value
+            evaluations++;
             return evaluator.evaluate(position);
         }
 
+        // look up the position in the transposition table, the stored bounds may already decide the node
+        long key = 0;
+        int tableMove = OthelloTranspositionEntry.NO_MOVE;
+        int alphaOriginal = alpha;
+        int betaOriginal = beta;
+        if (table != null) {
+            key = position.hash();
+            long entry = table.probe(key);
+            if (entry != 0) {
+                tableMove = OthelloTranspositionEntry.move(entry);
+                if (OthelloTranspositionEntry.depth(entry) >= depth) {
+                    int stored = OthelloTranspositionEntry.value(entry);
+                    int bound = OthelloTranspositionEntry.bound(entry);
+                    if (bound != OthelloTranspositionEntry.UPPER && stored > alpha) {
+                        alpha = stored;
+                    }
+                    if (bound != OthelloTranspositionEntry.LOWER && stored < beta) {
+                        beta = stored;
+                    }
+                    if (alpha >= beta) {
+                        return stored;
+                    }
+                }
+            }
+        }
+
         LinkedList<OthelloAction> moves = position.getMoves();
 
         // if no moves are possible, the game is either over or the player must pass
@@ -184,24 +574,50 @@ public class OthelloAlgorithmAlphaBeta implements OthelloAlgorithm {
             return minValue(position, alpha, beta, depth - 1);
         }
 
+        // search promising squares first, and the best move of an earlier search before all others
+        moves.sort(squareOrder(position));
+        orderFirst(moves, tableMove);
+
         int value = Integer.MIN_VALUE;
+        int bestMove = OthelloTranspositionEntry.NO_MOVE;
         OthelloPosition new_position;
+        OthelloChildren children = depth == 1 ? evaluateFrontier(position, moves) : null;
 
+        // the index of the action among the moves, advanced for every move, also one that turns out illegal
+        int index = -1;
         for (OthelloAction action : moves) {
+            index++;
             try {
-                // create new position, apply the action (may throw exception)
-                new_position = position.makeMove(action);
-
-                // call minValue on the new position
-                int min = minValue(new_position, alpha, beta, depth - 1);
+                int min;
+                if (children != null && children.child[index] >= 0) {
+                    // a leaf, evaluated together with its siblings
+                    nodes++;
+                    min = children.values[children.child[index]];
+                } else {
+                    // create new position, apply the action (may throw exception)
+                    new_position = position.makeMove(action);
+                    int newDepth = childDepth(position, moves, action, depth);
+
+                    // call minValue on the new position
+                    if (isReduced(index, depth, newDepth)) {
+                        // a late move: only search it fully if a reduced search shows it may beat alpha
+                        min = minValue(new_position, alpha, alpha + 1, newDepth - reduction);
+                        if (min > alpha) {
+                            min = minValue(new_position, alpha, beta, newDepth);
+                        }
+                    } else {
+                        min = minValue(new_position, alpha, beta, newDepth);
+                    }
+                }
 
                 // update value and alpha, if possible
                 if (min > value) {
                     value = min;
+                    bestMove = OthelloTranspositionEntry.square(action);
                     if (alpha < value) {
                         alpha = value;
                         if (alpha >= beta) {
-                            return value;
+                            break;
                         }
                     }
                 }
@@ -211,6 +627,10 @@ public class OthelloAlgorithmAlphaBeta implements OthelloAlgorithm {
             }
         }
 
+        if (children != null) {
+            frontierLevel--;
+        }
+        store(key, value, depth, alphaOriginal, betaOriginal, bestMove);
         return value;
     }
 
@@ -226,14 +646,40 @@ public class OthelloAlgorithmAlphaBeta implements OthelloAlgorithm {
      * @throws InterruptedException if the time is up
      */
     private int minValue(OthelloPosition position, int alpha, int beta, int depth) throws InterruptedException {
-        if (interrupted) {
-            throw new InterruptedException();
-        }
+        checkInterrupted();
+        nodes++;
         if (depth == 0) {
             // if depth is reached return heuristic value
+            evaluations++;
             return evaluator.evaluate(position);
         }
 
+        // look up the position in the transposition table, the stored bounds may already decide the node
+        long key = 0;
+        int tableMove = OthelloTranspositionEntry.NO_MOVE;
+        int alphaOriginal = alpha;
+        int betaOriginal = beta;
+        if (table != null) {
+            key = position.hash();
+            long entry = table.probe(key);
+            if (entry != 0) {
+                tableMove = OthelloTranspositionEntry.move(entry);
+                if (OthelloTranspositionEntry.depth(entry) >= depth) {
+                    int stored = OthelloTranspositionEntry.value(entry);
+                    int bound = OthelloTranspositionEntry.bound(entry);
+                    if (bound != OthelloTranspositionEntry.UPPER && stored > alpha) {
+                        alpha = stored;
+                    }
+                    if (bound != OthelloTranspositionEntry.LOWER && stored < beta) {
+                        beta = stored;
+                    }
+                    if (alpha >= beta) {
+                        return stored;
+                    }
+                }
+            }
+        }
+
         LinkedList<OthelloAction> moves = position.getMoves();
 
         // if no moves are possible, the game is either over or the player must pass
@@ -249,24 +695,50 @@ public class OthelloAlgorithmAlphaBeta implements OthelloAlgorithm {
             return maxValue(position, alpha, beta, depth - 1);
         }
 
+        // search promising squares first, and the best move of an earlier search before all others
+        moves.sort(squareOrder(position));
+        orderFirst(moves, tableMove);
+
         int value = Integer.MAX_VALUE;
+        int bestMove = OthelloTranspositionEntry.NO_MOVE;
         OthelloPosition new_position;
+        OthelloChildren children = depth == 1 ? evaluateFrontier(position, moves) : null;
 
+        // the index of the action among the moves, advanced for every move, also one that turns out illegal
+        int index = -1;
         for (OthelloAction action : moves) {
+            index++;
             try {
-                // create new position, apply the action (may throw exception)
-                new_position = position.makeMove(action);
-
-                // call minValue on the new position
-                int max = maxValue(new_position, alpha, beta, depth - 1);
+                int max;
+                if (children != null && children.child[index] >= 0) {
+                    // a leaf, evaluated together with its siblings
+                    nodes++;
+                    max = children.values[children.child[index]];
+                } else {
+                    // create new position, apply the action (may throw exception)
+                    new_position = position.makeMove(action);
+                    int newDepth = childDepth(position, moves, action, depth);
+
+                    // call maxValue on the new position
+                    if (isReduced(index, depth, newDepth)) {
+                        // a late move: only search it fully if a reduced search shows it may beat beta
+                        max = maxValue(new_position, beta - 1, beta, newDepth - reduction);
+                        if (max < beta) {
+                            max = maxValue(new_position, alpha, beta, newDepth);
+                        }
+                    } else {
+                        max = maxValue(new_position, alpha, beta, newDepth);
+                    }
+                }
 
                 // update value and beta, if possible
                 if (max < value) {
                     value = max;
+                    bestMove = OthelloTranspositionEntry.square(action);
                     if (beta > value) {
                         beta = value;
                         if (alpha >= beta) {
-                            return value;
+                            break;
                         }
                     }
                 }
@@ -277,9 +749,119 @@ public class OthelloAlgorithmAlphaBeta implements OthelloAlgorithm {
             }
         }
 
+        if (children != null) {
+            frontierLevel--;
+        }
+        store(key, value, depth, alphaOriginal, betaOriginal, bestMove);
         return value;
     }
 
+    /**
+     * Evaluates the children of a frontier node that are leaves, i.e., that are searched with depth 0, in one call of
+     * the evaluator. Children that are extended are not evaluated. The caller searches the children and then
+     * decrements frontierLevel.
+     *
+     * @return the evaluated children, or null if the evaluator does not support it
+     */
+    private OthelloChildren evaluateFrontier(OthelloPosition position, LinkedList<OthelloAction> moves) {
+        if (!batchEvaluation || !evaluator.supportsBatch(position.getSize())) {
+            return null;
+        }
+        // a frontier node below an extended child of this one uses the next level
+        if (frontierLevel == frontier.size()) {
+            frontier.add(new OthelloChildren());
+        }
+        OthelloChildren children = frontier.get(frontierLevel);
+        int i = 0;
+        for (OthelloAction action : moves) {
+            leaves[i++] = childDepth(position, moves, action, 1) == 0;
+        }
+        children.fill(position, moves, leaves);
+        evaluator.evaluate(children);
+        evaluations += children.count;
+        frontierLevel++;
+        return children;
+    }
+
+    /**
+     * Returns the depth the child reached by the action is searched with. Forced sequences are extended: the only
+     * move of a position, and moves taking a corner, do not use up depth.
+     */
+    private int childDepth(OthelloPosition position, LinkedList<OthelloAction> moves, OthelloAction action,
+                           int depth) {
+        if (extensions && (moves.size() == 1 || isCorner(action, position.getSize()))) {
+            return depth;
+        }
+        return depth - 1;
+    }
+
+    /**
+     * Returns true if the index-th move of a node is searched with reduced depth first.
+     */
+    private boolean isReduced(int index, int depth, int newDepth) {
+        return reductionMoves > 0 && index >= reductionMoves && newDepth == depth - 1 && newDepth - reduction >= 1;
+    }
+
+    private static boolean isCorner(OthelloAction action, int size) {
+        return (action.getRow() == 1 || action.getRow() == size)
+                && (action.getColumn() == 1 || action.getColumn() == size);
+    }
+
+    private static Comparator<OthelloAction> squareOrder(OthelloPosition position) {
+        return position.getSize() == OthelloPosition.SMALL_BOARD_SIZE ? SMALL_SQUARE_ORDER : SQUARE_ORDER;
+    }
+
+    /**
+     * Store the result of a node in the transposition table, if there is one.
+     *
+     * @param key   hash of the position
+     * @param value value found by the search
+     * @param depth depth of the search
+     * @param alpha alpha value the node was called with
+     * @param beta  beta value the node was called with
+     * @param move  square of the best move
+     */
+    private void store(long key, int value, int depth, int alpha, int beta, int move) {
+        if (table == null) {
+            return;
+        }
+        int bound = OthelloTranspositionEntry.EXACT;
+        if (value <= alpha) {
+            bound = OthelloTranspositionEntry.UPPER;
+        } else if (value >= beta) {
+            bound = OthelloTranspositionEntry.LOWER;
+        }
+        table.store(key, OthelloTranspositionEntry.pack(value, depth, bound, move));
+    }
+
+    /**
+     * Move the action placed on the given square to the front of the list, so that it is searched first.
+     * @return true if one of the moves is placed on the square
+     */
+    private boolean orderFirst(LinkedList<OthelloAction> moves, int square) {
+        if (square == OthelloTranspositionEntry.NO_MOVE) {
+            return false;
+        }
+        for (OthelloAction move : moves) {
+            if (OthelloTranspositionEntry.square(move) == square) {
+                moves.remove(move);
+                moves.addFirst(move);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Throws an exception if the search was interrupted, either by <code>interrupt</code> or by interrupting the
+     * searching thread.
+     */
+    private void checkInterrupted() throws InterruptedException {
+        if (interrupted || Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
     public void setSearchDepth(int depth) {
         this.depth = depth;
     }
@@ -287,5 +869,23 @@ public class OthelloAlgorithmAlphaBeta implements OthelloAlgorithm {
     /**
      * Set interrupted to true, in order to stop the search immediately
      */
-    public void interrupt() {interrupted = true;}
+    public void interrupt() {
+        if (Othello.RECORDING) {
+            OthelloInterruptEvent event = new OthelloInterruptEvent();
+            event.begin();
+            interruptEvent = event;
+        }
+        interrupted = true;
+    }
+
+    /**
+     * Returns the number of nodes visited by the last search.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTotalNodes() {
+        return rootNodes + nodes;
+    }
 }
\ No newline at end of file
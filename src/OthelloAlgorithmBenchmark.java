@@ -0,0 +1,68 @@
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Compares alpha-beta and Monte Carlo tree search under the same clock. Both
+ * search the same positions from random games with the iterative deepening
+ * driver of <code>Othello</code>, for the same time per move, and the nodes
+ * (alpha-beta) or playouts (MCTS) per second are printed, together with how
+ * often MCTS chose the move of alpha-beta. MCTS runs with 1, 2, 4, ... threads.
+ *
+ * usage: java OthelloAlgorithmBenchmark [positions] [millis per move] [max threads]
+ */
+
+public class OthelloAlgorithmBenchmark {
+
+    public static void main(String[] args) throws IllegalMoveException, InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int millis = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        OthelloPosition[] positions = OthelloEvaluatorBenchmark.randomPositions(count, new Random(7));
+        ExecutorService service = Executors.newSingleThreadExecutor();
+
+        OthelloEvaluator evaluator = new OthelloEvaluatorCompound(new OthelloEvaluatorMoves(), new OthelloEvaluatorCount());
+        OthelloAlgorithm alphaBeta = new OthelloAlgorithmAlphaBeta(evaluator,
+                new OthelloTranspositionTableLockless(1 << 20));
+        OthelloAction[] reference = run("alpha-beta", alphaBeta, positions, millis, service, null);
+
+        for (int t = 1; t <= threads; t = t < threads && t * 2 > threads ? threads : t * 2) {
+            OthelloAlgorithm mcts = new OthelloAlgorithmMCTS(OthelloAlgorithmMCTS.nodesFor(millis, t), t);
+            run("mcts, " + t + " threads", mcts, positions, millis, service, reference);
+        }
+        service.shutdownNow();
+    }
+
+    /**
+     * Searches every position for the given time and prints the search speed.
+     *
+     * @param reference the moves to compare with, may be null
+     * @return the moves chosen
+     */
+    private static OthelloAction[] run(String name, OthelloAlgorithm algorithm, OthelloPosition[] positions,
+                                       int millis, ExecutorService service, OthelloAction[] reference)
+            throws InterruptedException {
+        OthelloAction[] actions = new OthelloAction[positions.length];
+        long time = 0;
+        long total = 0;
+        int same = 0;
+        for (int i = 0; i < positions.length; i++) {
+            algorithm.setPlayer(positions[i].toMove());
+            long start = System.nanoTime();
+            actions[i] = Othello.iterativeDeepening(algorithm, positions[i], System.currentTimeMillis() + millis,
+                    service);
+            time += System.nanoTime() - start;
+            // all searches of the move: alpha-beta counts each search, MCTS the playouts of the tree it keeps
+            total += algorithm.getTotalNodes();
+            if (reference != null && actions[i].toString().equals(reference[i].toString())) {
+                same++;
+            }
+        }
+        System.out.printf("%-20s %12.0f nodes or playouts/s", name, total / (time / 1e9));
+        if (reference != null) {
+            System.out.printf("   same move as alpha-beta: %d of %d", same, positions.length);
+        }
+        System.out.println();
+        return actions;
+    }
+}
@@ -0,0 +1,399 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Monte Carlo tree search with UCT. Every playout walks down the tree, choosing
+ * the child with the best upper confidence bound, expands the leaf it reaches
+ * and plays random moves from there to the end of the game. The result is
+ * added to every node on the way. The move played is the most visited child of
+ * the root. The evaluator is not used.
+ *
+ * Several threads grow the same tree (tree parallelism). A thread adds a visit
+ * to every node it walks through before it knows the result, a "virtual loss",
+ * so that the other threads prefer other paths until the result is added.
+ *
+ * The nodes are kept in arrays instead of objects: node i has visits[i],
+ * wins[i] (in half points, a draw counts 1 and a win 2, from the view of the
+ * player who made the move leading to it), the square of that move, and the
+ * index and number of its children, which are stored next to each other. The
+ * statistics are updated with atomic adds, and a node is expanded by the one
+ * thread that wins a compare-and-set on its first child; no locks are used.
+ * When the arrays are full, leaves are no longer expanded.
+ *
+ * The driver in <code>Othello</code> calls <code>searchAction</code> with
+ * increasing depth. Each call continues to grow the same tree until the root
+ * has 2^depth * 64 visits, so the search goes on until the time is up.
+ */
+
+public class OthelloAlgorithmMCTS implements OthelloAlgorithm {
+
+    /** Exploration constant of UCT. */
+    private static final double EXPLORATION = 1.0;
+
+    /** Square of a pass move. */
+    private static final byte PASS = 64;
+
+    /** Values of firstChild for nodes without children. */
+    private static final int UNEXPANDED = -1;
+    private static final int EXPANDING = -2;
+    private static final int TERMINAL = -3;
+    private static final int NO_ROOM = -4;
+
+    /** Longest possible game: every square, with a pass before each move. */
+    private static final int MAX_PLIES = 130;
+
+    /** Playouts per second of one thread, with room to spare; a playout adds at most one node. */
+    private static final int PLAYOUTS_PER_SECOND = 400_000;
+
+    /** Smallest and largest tree sized by <code>nodesFor</code>. */
+    private static final int MIN_NODES = 1 << 16;
+    private static final int MAX_NODES = 1 << 22;
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final int[] visits;
+    private final int[] wins;
+    private final int[] firstChild;
+    private final byte[] childCount;
+    private final byte[] square;
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final int threads;
+    private final ExecutorService helpers;
+    private final SplittableRandom random = new SplittableRandom(1);
+
+    private int depth = 1;
+    protected volatile boolean interrupted;
+
+    /** Playouts in the tree when the last search started */
+    private long startPlayouts;
+
+    /** The root position of the tree */
+    private OthelloBitboard board;
+    private long rootOwn;
+    private long rootOpponent;
+    private boolean rootWhite;
+    private boolean hasRoot;
+
+    /**
+     * Creates a search with a tree of at most the given number of nodes, grown by the given number of threads.
+     */
+    public OthelloAlgorithmMCTS(int nodes, int threads) {
+        visits = new int[nodes];
+        wins = new int[nodes];
+        firstChild = new int[nodes];
+        childCount = new byte[nodes];
+        square = new byte[nodes];
+        this.threads = threads;
+        if (threads > 1) {
+            // idle helpers exit, so that searches that are no longer used do not keep threads
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads - 1, threads - 1, 1, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "mcts");
+                thread.setDaemon(true);
+                return thread;
+            });
+            pool.allowCoreThreadTimeOut(true);
+            helpers = pool;
+        } else {
+            helpers = null;
+        }
+    }
+
+    /**
+     * Creates a search with a tree of 2^22 nodes (about 60 MB), grown by one thread per processor.
+     */
+    public OthelloAlgorithmMCTS() {
+        this(MAX_NODES, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Returns the number of nodes the given threads can add to the tree in the given time, so that a search of a
+     * single move does not allocate a tree it can not fill. At least 2^16 and at most 2^22.
+     */
+    public static int nodesFor(long millis, int threads) {
+        long nodes = millis * PLAYOUTS_PER_SECOND / 1000 * threads;
+        return (int) Math.max(MIN_NODES, Math.min(MAX_NODES, nodes));
+    }
+
+    /** The evaluator is not used, playouts go to the end of the game. */
+    public void setEvaluator(OthelloEvaluator evaluator) {
+    }
+
+    public void setSearchDepth(int depth) {
+        this.depth = depth;
+    }
+
+    /** The player to move is taken from the position. */
+    public void setPlayer(boolean maxPlayer) {
+    }
+
+    public void interrupt() {
+        interrupted = true;
+    }
+
+    /**
+     * Grows the tree until the root has 2^depth * 64 visits, and returns its most visited move. The tree of the
+     * previous call is kept if the position is the same.
+     *
+     * @throws InterruptedException if the search was interrupted before it reached the number of visits
+     */
+    public OthelloAction searchAction(OthelloPosition position) throws InterruptedException {
+        interrupted = false;
+        setRoot(position);
+        startPlayouts = getTotalNodes();
+        int target = 64 << Math.min(depth, 24);
+
+        Future<?>[] running = new Future<?>[threads - 1];
+        for (int i = 0; i < running.length; i++) {
+            Playouts playouts = new Playouts(random.split(), target);
+            running[i] = helpers.submit(playouts::run);
+        }
+        new Playouts(random.split(), target).run();
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                interrupted = true;
+                throw e;
+            }
+        }
+        if (interrupted || Thread.currentThread().isInterrupted()) {
+            interrupted = true;
+            throw new InterruptedException();
+        }
+        return getBestAction();
+    }
+
+    /**
+     * Returns the most visited move of the root, with its number of visits as value, or null if no playout has
+     * finished yet.
+     */
+    public OthelloAction getBestAction() {
+        int first = (int) INTS.getAcquire(firstChild, 0);
+        if (first == TERMINAL || (first >= 0 && square[first] == PASS)) {
+            return new OthelloAction("pass");
+        }
+        if (first < 0) {
+            return null;
+        }
+        int best = -1;
+        for (int child = first; child < first + childCount[0]; child++) {
+            if (best < 0 || (int) INTS.getOpaque(visits, child) > (int) INTS.getOpaque(visits, best)) {
+                best = child;
+            }
+        }
+        OthelloAction action = board.action(square[best]);
+        action.setValue((int) INTS.getOpaque(visits, best));
+        return action;
+    }
+
+    /**
+     * Returns the number of playouts of the last search.
+     */
+    public long getNodes() {
+        return getTotalNodes() - startPlayouts;
+    }
+
+    /**
+     * Returns the number of playouts in the tree, which is kept while the root position stays the same.
+     */
+    public long getTotalNodes() {
+        return hasRoot ? (int) INTS.getOpaque(visits, 0) : 0;
+    }
+
+    /**
+     * Keeps the tree if it belongs to the position, otherwise starts a new one.
+     */
+    private void setRoot(OthelloPosition position) {
+        OthelloBitboard positionBoard = OthelloBitboard.of(position.getSize());
+        long own = OthelloBitboard.discs(position, position.toMove());
+        long opponent = OthelloBitboard.discs(position, !position.toMove());
+        if (hasRoot && positionBoard == board && own == rootOwn && opponent == rootOpponent
+                && position.toMove() == rootWhite) {
+            return;
+        }
+        board = positionBoard;
+        rootOwn = own;
+        rootOpponent = opponent;
+        rootWhite = position.toMove();
+        hasRoot = true;
+        size.set(1);
+        visits[0] = 0;
+        wins[0] = 0;
+        firstChild[0] = UNEXPANDED;
+    }
+
+    /**
+     * The playouts of one thread. The arrays are reused by every playout, a playout does not allocate.
+     */
+    private class Playouts implements Runnable {
+        private final SplittableRandom random;
+        private final int target;
+        private final int[] path = new int[MAX_PLIES];
+        private final boolean[] movedWhite = new boolean[MAX_PLIES];
+
+        Playouts(SplittableRandom random, int target) {
+            this.random = random;
+            this.target = target;
+        }
+
+        public void run() {
+            while (!interrupted && (int) INTS.getOpaque(visits, 0) < target) {
+                if (Thread.currentThread().isInterrupted()) {
+                    interrupted = true;
+                    return;
+                }
+                playout();
+            }
+        }
+
+        /**
+         * Selects a path through the tree, expands its leaf, plays randomly to the end of the game and adds the
+         * result to the path.
+         */
+        private void playout() {
+            long own = rootOwn;
+            long opponent = rootOpponent;
+            boolean white = rootWhite;
+            int node = 0;
+            int length = 0;
+            INTS.getAndAdd(visits, 0, 1);
+            path[length] = 0;
+            movedWhite[length++] = !white;
+
+            while (true) {
+                int first = (int) INTS.getAcquire(firstChild, node);
+                boolean expanded = false;
+                if (first == UNEXPANDED && INTS.compareAndSet(firstChild, node, UNEXPANDED, EXPANDING)) {
+                    first = expand(node, own, opponent);
+                    expanded = true;
+                }
+                if (first < 0) {
+                    // a leaf: the end of the game, or a node that is not expanded (yet)
+                    break;
+                }
+                node = select(node, first);
+                INTS.getAndAdd(visits, node, 1);
+                if (square[node] != PASS) {
+                    long flips = board.flips(own, opponent, square[node]);
+                    long moved = own | flips | 1L << square[node];
+                    own = opponent & ~flips;
+                    opponent = moved;
+                } else {
+                    long swap = own;
+                    own = opponent;
+                    opponent = swap;
+                }
+                path[length] = node;
+                movedWhite[length++] = white;
+                white = !white;
+                if (expanded) {
+                    // one new node per playout, the random game starts at it
+                    break;
+                }
+            }
+
+            // 2 if white wins, 1 for a draw, 0 if black wins
+            int result = Integer.signum(randomGame(own, opponent) * (white ? 1 : -1)) + 1;
+            for (int i = 0; i < length; i++) {
+                INTS.getAndAdd(wins, path[i], movedWhite[i] ? result : 2 - result);
+            }
+        }
+
+        /**
+         * Creates the children of the node and returns the index of the first one, or TERMINAL or NO_ROOM.
+         */
+        private int expand(int node, long own, long opponent) {
+            long moves = board.moves(own, opponent);
+            int count = Long.bitCount(moves);
+            if (count == 0 && board.moves(opponent, own) == 0) {
+                INTS.setRelease(firstChild, node, TERMINAL);
+                return TERMINAL;
+            }
+            int first = size.getAndAdd(Math.max(1, count));
+            if (first + Math.max(1, count) > visits.length) {
+                INTS.setRelease(firstChild, node, NO_ROOM);
+                return NO_ROOM;
+            }
+            if (count == 0) {
+                square[first] = PASS;
+                count = 1;
+            } else {
+                int child = first;
+                for (long m = moves; m != 0; m &= m - 1) {
+                    square[child++] = (byte) Long.numberOfTrailingZeros(m);
+                }
+            }
+            for (int child = first; child < first + count; child++) {
+                visits[child] = 0;
+                wins[child] = 0;
+                firstChild[child] = UNEXPANDED;
+            }
+            childCount[node] = (byte) count;
+            // publishes the children to the other threads
+            INTS.setRelease(firstChild, node, first);
+            return first;
+        }
+
+        /**
+         * Returns the child with the highest upper confidence bound; children without visits first.
+         */
+        private int select(int node, int first) {
+            double logVisits = Math.log(Math.max(1, (int) INTS.getOpaque(visits, node)));
+            int best = first;
+            double bestBound = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < first + childCount[node]; child++) {
+                int n = (int) INTS.getOpaque(visits, child);
+                if (n == 0) {
+                    return child;
+                }
+                double bound = (int) INTS.getOpaque(wins, child) / (2.0 * n) + EXPLORATION * Math.sqrt(logVisits / n);
+                if (bound > bestBound) {
+                    bestBound = bound;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Plays random moves to the end of the game.
+         *
+         * @return the final disc difference from the view of the player to move at the start
+         */
+        private int randomGame(long own, long opponent) {
+            int sign = 1;
+            boolean passed = false;
+            while (true) {
+                long moves = board.moves(own, opponent);
+                if (moves == 0) {
+                    if (passed) {
+                        break;
+                    }
+                    passed = true;
+                } else {
+                    passed = false;
+                    // the k-th set bit of the moves
+                    for (int k = random.nextInt(Long.bitCount(moves)); k > 0; k--) {
+                        moves &= moves - 1;
+                    }
+                    int move = Long.numberOfTrailingZeros(moves);
+                    long flips = board.flips(own, opponent, move);
+                    own |= flips | 1L << move;
+                    opponent &= ~flips;
+                }
+                long swap = own;
+                own = opponent;
+                opponent = swap;
+                sign = -sign;
+            }
+            return sign * (Long.bitCount(own) - Long.bitCount(opponent));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+import java.util.LinkedList;
+import java.util.concurrent.*;
+
+/**
+ * Analysis mode: prints the best k moves of a position with their values and
+ * principal variations, instead of a single move. The values are, as always,
+ * from white's point of view. The search deepens until the time is up; the
+ * lines of the deepest completed search are printed.
+ *
+ * usage: java OthelloAnalysis &lt;board&gt; &lt;time limit&gt; &lt;k&gt;
+ */
+
+public class OthelloAnalysis {
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 3 || (args[0].length() != 65 && args[0].length() != 37)) {
+            System.out.println("Three arguments are required: a string of length 65 (37 for 6x6) representing the board, " +
+                    "the time limit in seconds and the number of moves to analyse.");
+            return;
+        }
+        String board = args[0];
+        long endTime = System.currentTimeMillis() + Integer.parseInt(args[1]) * 950L;
+        int k = Integer.parseInt(args[2]);
+        if (k < 1) {
+            System.out.println("The number of moves to analyse must be at least 1.");
+            return;
+        }
+
+        OthelloPosition position = new OthelloPosition(board);
+        OthelloEvaluator evaluator = new OthelloEvaluatorCompound(new OthelloEvaluatorMoves(), new OthelloEvaluatorCount());
+        OthelloAlgorithmAlphaBeta algorithm = new OthelloAlgorithmAlphaBeta(evaluator,
+                new OthelloTranspositionTableLockless(1 << 20));
+        algorithm.setPlayer(board.charAt(0) == 'W');
+
+        final ExecutorService service = Executors.newSingleThreadExecutor();
+        LinkedList<OthelloAction> lines = null;
+        int depth = 0;
+        long remainingTime = endTime - System.currentTimeMillis();
+        while (lines == null || remainingTime > 0) {
+            algorithm.setSearchDepth(depth + 1);
+            final Future<LinkedList<OthelloAction>> search = service.submit(() -> algorithm.searchActions(position, k));
+            try {
+                // the first depth is always completed
+                lines = lines == null ? search.get() : search.get(remainingTime, TimeUnit.MILLISECONDS);
+                depth++;
+            } catch (TimeoutException e) {
+                algorithm.interrupt();
+                search.cancel(true);
+                break;
+            } catch (ExecutionException e) {
+                e.printStackTrace();
+                break;
+            }
+            remainingTime = endTime - System.currentTimeMillis();
+        }
+        service.shutdownNow();
+
+        System.out.println("depth " + depth);
+        for (OthelloAction action : lines) {
+            StringBuilder line = new StringBuilder();
+            line.append(action).append(' ').append(action.getValue()).append(" :");
+            LinkedList<OthelloAction> variation = action.getVariation();
+            for (OthelloAction move : variation == null ? new LinkedList<OthelloAction>() : variation) {
+                line.append(' ').append(move);
+            }
+            System.out.println(line);
+        }
+    }
+}
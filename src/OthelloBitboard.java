@@ -0,0 +1,157 @@
+/**
+ * Move generation on bitboards, for boards of up to 8x8 squares. A board is a
+ * pair of longs, the discs of the player to move and of the opponent, with one
+ * bit per square: bit <code>row * size + column</code>, counting rows and
+ * columns from 0 in the upper left corner. A 6x6 board uses the lowest 36 bits.
+ *
+ * The moves in all eight directions are found with shifts: a shift by 1 moves
+ * the discs one column, a shift by <code>size</code> one row. The masks remove
+ * the discs that a shift moves across the left or right edge.
+ */
+
+public final class OthelloBitboard {
+
+    /** The 6x6 board. */
+    public static final OthelloBitboard SMALL = new OthelloBitboard(OthelloPosition.SMALL_BOARD_SIZE);
+
+    /** The 8x8 board. */
+    public static final OthelloBitboard LARGE = new OthelloBitboard(OthelloPosition.BOARD_SIZE);
+
+    private final int size;
+    private final long full;
+    private final long corners;
+
+    /** Shift of each of the four directions east, south, south-east and south-west. */
+    private final int[] shifts;
+
+    /** Squares a disc can be on after a left shift (towards the higher bits), per direction. */
+    private final long[] leftMasks;
+
+    /** Squares a disc can be on after a right shift (towards the lower bits), per direction. */
+    private final long[] rightMasks;
+
+    private OthelloBitboard(int size) {
+        this.size = size;
+        full = size * size == 64 ? -1L : (1L << (size * size)) - 1;
+        long firstColumn = 0;
+        for (int row = 0; row < size; row++) {
+            firstColumn |= 1L << (row * size);
+        }
+        long notFirst = full & ~firstColumn;
+        long notLast = full & ~(firstColumn << (size - 1));
+        corners = 1L | 1L << (size - 1) | 1L << (size * (size - 1)) | 1L << (size * size - 1);
+        shifts = new int[]{1, size, size + 1, size - 1};
+        leftMasks = new long[]{notFirst, full, notFirst, notLast};
+        rightMasks = new long[]{notLast, full, notLast, notFirst};
+    }
+
+    /**
+     * Returns the bitboard of the given board size.
+     */
+    public static OthelloBitboard of(int size) {
+        return size == OthelloPosition.SMALL_BOARD_SIZE ? SMALL : LARGE;
+    }
+
+    /** Returns the number of rows and columns. */
+    public int size() {
+        return size;
+    }
+
+    /** Returns the bits of all squares of the board. */
+    public long full() {
+        return full;
+    }
+
+    /** Returns the bits of the four corners. */
+    public long corners() {
+        return corners;
+    }
+
+    /**
+     * Returns the squares the player to move can play.
+     *
+     * @param own      the discs of the player to move
+     * @param opponent the discs of the opponent
+     */
+    public long moves(long own, long opponent) {
+        long empty = full & ~(own | opponent);
+        long moves = 0;
+        for (int d = 0; d < 4; d++) {
+            int shift = shifts[d];
+            long left = leftMasks[d] & opponent;
+            long right = rightMasks[d] & opponent;
+            // runs of opponent discs next to an own disc, at most size - 2 long
+            long l = left & (own << shift);
+            long r = right & (own >>> shift);
+            for (int i = 3; i < size; i++) {
+                l |= left & (l << shift);
+                r |= right & (r >>> shift);
+            }
+            moves |= empty & leftMasks[d] & (l << shift);
+            moves |= empty & rightMasks[d] & (r >>> shift);
+        }
+        return moves;
+    }
+
+    /**
+     * Returns the discs flipped when the player to move plays the square, 0 if the move is not legal.
+     *
+     * @param own      the discs of the player to move
+     * @param opponent the discs of the opponent
+     * @param square   the bit index of the square, an empty square
+     */
+    public long flips(long own, long opponent, int square) {
+        long move = 1L << square;
+        long flips = 0;
+        for (int d = 0; d < 4; d++) {
+            int shift = shifts[d];
+            long leftMask = leftMasks[d];
+            long rightMask = rightMasks[d];
+            long run = 0;
+            long x = leftMask & (move << shift);
+            while ((x & opponent) != 0) {
+                run |= x;
+                x = leftMask & (x << shift);
+            }
+            if ((x & own) != 0) {
+                flips |= run;
+            }
+            run = 0;
+            x = rightMask & (move >>> shift);
+            while ((x & opponent) != 0) {
+                run |= x;
+                x = rightMask & (x >>> shift);
+            }
+            if ((x & own) != 0) {
+                flips |= run;
+            }
+        }
+        return flips;
+    }
+
+    /**
+     * Returns the discs of one color of the position as a bitboard.
+     *
+     * @param white true for the white discs, false for the black discs
+     */
+    public static long discs(OthelloPosition position, boolean white) {
+        char color = white ? 'W' : 'B';
+        int size = position.getSize();
+        long discs = 0;
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                if (position.board[row + 1][column + 1] == color) {
+                    discs |= 1L << (row * size + column);
+                }
+            }
+        }
+        return discs;
+    }
+
+    /**
+     * Returns the action playing the square.
+     */
+    public OthelloAction action(int square) {
+        return new OthelloAction(square / size + 1, square % size + 1);
+    }
+}
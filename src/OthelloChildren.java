@@ -0,0 +1,69 @@
+import java.util.List;
+
+/**
+ * The children of a frontier node that are evaluated together, laid out as
+ * structure of arrays: child i is the parent position after the move to
+ * <code>squares[i]</code>, with the discs <code>white[i]</code> and
+ * <code>black[i]</code> (bitboards, see <code>OthelloBitboard</code>), of
+ * which <code>flips[i]</code> changed color. An evaluator supporting batches
+ * writes the value of child i into <code>values[i]</code>.
+ *
+ * The search keeps one instance per frontier node it is in, so an evaluator
+ * shared by several searches must not keep state between calls.
+ */
+
+public class OthelloChildren {
+
+    /** More moves than any position has. */
+    static final int MAX_CHILDREN = 64;
+
+    /** The parent position, it must not be changed. */
+    OthelloPosition parent;
+    OthelloBitboard board;
+    long parentWhite;
+    long parentBlack;
+
+    /** True if white makes the moves. */
+    boolean whiteMoves;
+
+    int count;
+    final int[] squares = new int[MAX_CHILDREN];
+    final long[] white = new long[MAX_CHILDREN];
+    final long[] black = new long[MAX_CHILDREN];
+    final long[] flips = new long[MAX_CHILDREN];
+    final int[] values = new int[MAX_CHILDREN];
+
+    /** child[i] is the index of move i of the parent among the children, or -1 if it is not one of them. */
+    final int[] child = new int[MAX_CHILDREN];
+
+    /**
+     * Sets the children to the positions after the moves for which <code>include</code> is true.
+     */
+    void fill(OthelloPosition parent, List<OthelloAction> moves, boolean[] include) {
+        this.parent = parent;
+        board = OthelloBitboard.of(parent.getSize());
+        parentWhite = OthelloBitboard.discs(parent, true);
+        parentBlack = OthelloBitboard.discs(parent, false);
+        whiteMoves = parent.toMove();
+        long own = whiteMoves ? parentWhite : parentBlack;
+        long opponent = whiteMoves ? parentBlack : parentWhite;
+        int size = board.size();
+        count = 0;
+        int i = 0;
+        for (OthelloAction action : moves) {
+            if (!include[i]) {
+                child[i++] = -1;
+                continue;
+            }
+            int square = (action.getRow() - 1) * size + action.getColumn() - 1;
+            long flipped = board.flips(own, opponent, square);
+            long moved = own | flipped | 1L << square;
+            long other = opponent & ~flipped;
+            squares[count] = square;
+            flips[count] = flipped;
+            white[count] = whiteMoves ? moved : other;
+            black[count] = whiteMoves ? other : moved;
+            child[i++] = count++;
+        }
+    }
+}
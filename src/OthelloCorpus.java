@@ -0,0 +1,476 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Builds a corpus of the distinct positions of many games, for opening books
+ * and tuning sets. It reads game records (<code>OthelloGameRecord</code>),
+ * replays them on bitboards and counts every position, together with how
+ * often white won, drew and lost the games it occurred in. A record is only
+ * used if all its moves are legal, it ends when neither player can move, and
+ * its score is that of the final position; the other lines are counted as
+ * skipped.
+ *
+ * Positions that are the same up to one of the 8 symmetries of the board
+ * (rotations and reflections) are the same position: each is replaced by the
+ * symmetric position with the smallest pair of bitboards. A position is the
+ * white and the black discs, two longs, and the player to move.
+ *
+ * The positions are counted in an open-addressing hash table outside the
+ * heap, 32 bytes per entry: white and black discs, count, white wins, black
+ * wins and the player to move. When the table is three quarters full, its
+ * entries are sorted and written to a run file, and the table is cleared. At
+ * the end the runs are merged, adding up the counts of equal positions, into
+ * the corpus: one line per position, the position as a string of length 65
+ * (as <code>OthelloPosition</code> reads it), its count and the white wins,
+ * draws and black wins.
+ *
+ * usage: java OthelloCorpus &lt;corpus file&gt; &lt;table entries&gt; &lt;records file&gt; [more files]
+ */
+
+public class OthelloCorpus {
+
+    private static final int ENTRY = 32;
+    private static final int WHITE_OFFSET = 0;
+    private static final int BLACK_OFFSET = 8;
+    private static final int COUNT_OFFSET = 16;
+    private static final int WHITE_WINS_OFFSET = 20;
+    private static final int BLACK_WINS_OFFSET = 24;
+    private static final int TO_MOVE_OFFSET = 28;
+
+    /** Largest table: the buffer is indexed with an int. */
+    private static final int MAX_ENTRIES = 1 << 25;
+
+    /** Longest game: every square, with a pass before each move. */
+    private static final int MAX_MOVES = 130;
+
+    private final OthelloBitboard board = OthelloBitboard.LARGE;
+    private final long initialWhite;
+    private final long initialBlack;
+    private final ByteBuffer table;
+    private final int mask;
+    private final int limit;
+    private final Path directory;
+    private final List<Path> runs = new ArrayList<>();
+    private int used;
+    private long positions;
+    private long games;
+    private long skipped;
+
+    /** The positions of the game being replayed, they are added once the whole record has been checked. */
+    private final long[] gameWhite = new long[MAX_MOVES + 1];
+    private final long[] gameBlack = new long[MAX_MOVES + 1];
+
+    /**
+     * Creates a corpus builder.
+     *
+     * @param entries   the minimum number of entries of the table, rounded up to a power of two; at most 2^25
+     * @param directory the directory the runs are written to
+     */
+    public OthelloCorpus(int entries, Path directory) {
+        int size = 16;
+        while (size < entries && size < MAX_ENTRIES) {
+            size <<= 1;
+        }
+        this.table = ByteBuffer.allocateDirect(size * ENTRY);
+        this.mask = size - 1;
+        this.limit = size / 4 * 3;
+        this.directory = directory;
+        OthelloPosition initial = new OthelloPosition(OthelloGameRecord.INITIAL_POSITION);
+        this.initialWhite = OthelloBitboard.discs(initial, true);
+        this.initialBlack = OthelloBitboard.discs(initial, false);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("At least three arguments are required: the corpus file, the number of table entries " +
+                    "and a file of game records.");
+            return;
+        }
+        Path corpus = Paths.get(args[0]);
+        Path directory = corpus.toAbsolutePath().getParent();
+        OthelloCorpus builder = new OthelloCorpus(Integer.parseInt(args[1]), directory);
+        long start = System.nanoTime();
+        for (int i = 2; i < args.length; i++) {
+            builder.addGames(Paths.get(args[i]));
+        }
+        long unique = builder.write(corpus);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games, %d skipped, %d positions, %d unique positions, %d runs, %.1f s, "
+                + "%.0f positions/s%n", builder.games, builder.skipped, builder.positions, unique, builder.runs.size(), seconds,
+                builder.positions / seconds);
+    }
+
+    /**
+     * Adds every position of the games of a records file. Lines that are not records of legal, finished games are
+     * skipped.
+     */
+    public void addGames(Path records) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(records)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int space = line.indexOf(' ');
+                int score;
+                try {
+                    score = Integer.parseInt(line.substring(space + 1).trim());
+                } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                    score = Integer.MIN_VALUE;
+                }
+                if (space < 0 || space % 2 != 0 || space / 2 > MAX_MOVES || score == Integer.MIN_VALUE
+                        || !addGame(line, space / 2, score)) {
+                    skipped++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Replays the moves of a record and, if they are legal and end the game with the given score, adds every
+     * position, from the initial position to the last one.
+     *
+     * @param moves  the moves, two characters each, as written by <code>OthelloGameRecord</code>
+     * @param length the number of moves, at most MAX_MOVES
+     * @param score  the final score of the record, #white discs - #black discs
+     * @return false if the record is not a legal, finished game with that score
+     */
+    private boolean addGame(CharSequence moves, int length, int score) throws IOException {
+        long white = initialWhite;
+        long black = initialBlack;
+        boolean whiteToMove = true;
+        gameWhite[0] = white;
+        gameBlack[0] = black;
+        for (int i = 0; i < length; i++) {
+            long own = whiteToMove ? white : black;
+            long opponent = whiteToMove ? black : white;
+            long legal = board.moves(own, opponent);
+            char column = moves.charAt(2 * i);
+            char row = moves.charAt(2 * i + 1);
+            if (column == '-' && row == '-') {
+                // a pass is only written when the other player can move
+                if (legal != 0 || board.moves(opponent, own) == 0) {
+                    return false;
+                }
+            } else {
+                if (column < 'a' || column > 'h' || row < '1' || row > '8') {
+                    return false;
+                }
+                int square = (row - '1') * 8 + column - 'a';
+                if ((legal & 1L << square) == 0) {
+                    return false;
+                }
+                long flips = board.flips(own, opponent, square);
+                own |= flips | 1L << square;
+                opponent &= ~flips;
+                white = whiteToMove ? own : opponent;
+                black = whiteToMove ? opponent : own;
+            }
+            whiteToMove = !whiteToMove;
+            gameWhite[i + 1] = white;
+            gameBlack[i + 1] = black;
+        }
+        if (board.moves(white, black) != 0 || board.moves(black, white) != 0
+                || score != Long.bitCount(white) - Long.bitCount(black)) {
+            return false;
+        }
+
+        int result = Integer.signum(score);
+        whiteToMove = true;
+        for (int i = 0; i <= length; i++) {
+            add(gameWhite[i], gameBlack[i], whiteToMove, result);
+            whiteToMove = !whiteToMove;
+        }
+        games++;
+        return true;
+    }
+
+    /**
+     * Counts a position, in its canonical form.
+     */
+    private void add(long white, long black, boolean whiteToMove, int result) throws IOException {
+        positions++;
+        long canonicalWhite = white;
+        long canonicalBlack = black;
+        for (int symmetry = 1; symmetry < 8; symmetry++) {
+            long w = transform(white, symmetry);
+            long b = transform(black, symmetry);
+            if (compare(w, b, canonicalWhite, canonicalBlack) < 0) {
+                canonicalWhite = w;
+                canonicalBlack = b;
+            }
+        }
+        int toMove = whiteToMove ? 1 : 0;
+        int i = (int) hash(canonicalWhite, canonicalBlack, toMove) & mask;
+        while (true) {
+            int offset = i * ENTRY;
+            int count = table.getInt(offset + COUNT_OFFSET);
+            if (count == 0) {
+                table.putLong(offset + WHITE_OFFSET, canonicalWhite);
+                table.putLong(offset + BLACK_OFFSET, canonicalBlack);
+                table.putInt(offset + COUNT_OFFSET, 1);
+                table.putInt(offset + WHITE_WINS_OFFSET, result > 0 ? 1 : 0);
+                table.putInt(offset + BLACK_WINS_OFFSET, result < 0 ? 1 : 0);
+                table.putInt(offset + TO_MOVE_OFFSET, toMove);
+                if (++used >= limit) {
+                    spill();
+                }
+                return;
+            }
+            if (table.getLong(offset + WHITE_OFFSET) == canonicalWhite
+                    && table.getLong(offset + BLACK_OFFSET) == canonicalBlack
+                    && table.getInt(offset + TO_MOVE_OFFSET) == toMove) {
+                table.putInt(offset + COUNT_OFFSET, count + 1);
+                if (result != 0) {
+                    int wins = offset + (result > 0 ? WHITE_WINS_OFFSET : BLACK_WINS_OFFSET);
+                    table.putInt(wins, table.getInt(wins) + 1);
+                }
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Writes the entries of the table, sorted, to a new run file and clears the table.
+     */
+    private void spill() throws IOException {
+        int n = sortEntries();
+        Path run = Files.createTempFile(directory, "corpus", ".run");
+        run.toFile().deleteOnExit();
+        try (FileChannel channel = FileChannel.open(run, StandardOpenOption.WRITE)) {
+            ByteBuffer entries = table.duplicate();
+            entries.position(0).limit(n * ENTRY);
+            while (entries.hasRemaining()) {
+                channel.write(entries);
+            }
+        }
+        runs.add(run);
+        for (int offset = 0; offset < table.capacity(); offset += ENTRY) {
+            table.putInt(offset + COUNT_OFFSET, 0);
+        }
+        used = 0;
+    }
+
+    /**
+     * Moves the entries of the table to its front and sorts them in place (heapsort, nothing is allocated).
+     *
+     * @return the number of entries
+     */
+    private int sortEntries() {
+        int n = 0;
+        for (int offset = 0; offset < table.capacity(); offset += ENTRY) {
+            if (table.getInt(offset + COUNT_OFFSET) != 0) {
+                if (offset != n * ENTRY) {
+                    swap(offset / ENTRY, n);
+                }
+                n++;
+            }
+        }
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+        return n;
+    }
+
+    private void siftDown(int i, int n) {
+        while (2 * i + 1 < n) {
+            int child = 2 * i + 1;
+            if (child + 1 < n && compareEntries(child + 1, child) > 0) {
+                child++;
+            }
+            if (compareEntries(i, child) >= 0) {
+                return;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private int compareEntries(int i, int j) {
+        int a = i * ENTRY;
+        int b = j * ENTRY;
+        int c = compare(table.getLong(a + WHITE_OFFSET), table.getLong(a + BLACK_OFFSET),
+                table.getLong(b + WHITE_OFFSET), table.getLong(b + BLACK_OFFSET));
+        return c != 0 ? c : Integer.compare(table.getInt(a + TO_MOVE_OFFSET), table.getInt(b + TO_MOVE_OFFSET));
+    }
+
+    private void swap(int i, int j) {
+        int a = i * ENTRY;
+        int b = j * ENTRY;
+        for (int k = 0; k < ENTRY; k += Long.BYTES) {
+            long x = table.getLong(a + k);
+            table.putLong(a + k, table.getLong(b + k));
+            table.putLong(b + k, x);
+        }
+    }
+
+    /**
+     * Writes the corpus: merges the runs and the entries still in the table, adding up equal positions.
+     *
+     * @return the number of distinct positions
+     */
+    public long write(Path corpus) throws IOException {
+        if (used > 0 || runs.isEmpty()) {
+            spill();
+        }
+        PriorityQueue<Run> queue = new PriorityQueue<>();
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(corpus))) {
+            for (Path file : runs) {
+                Run run = new Run(file);
+                if (run.next()) {
+                    queue.add(run);
+                } else {
+                    run.close();
+                }
+            }
+            long unique = 0;
+            while (!queue.isEmpty()) {
+                Run run = queue.poll();
+                long white = run.white;
+                long black = run.black;
+                int toMove = run.toMove;
+                long count = 0;
+                long whiteWins = 0;
+                long blackWins = 0;
+                // a position is at most once in a run, add up the runs that have it
+                do {
+                    count += run.count;
+                    whiteWins += run.whiteWins;
+                    blackWins += run.blackWins;
+                    if (run.next()) {
+                        queue.add(run);
+                    } else {
+                        run.close();
+                    }
+                    run = queue.peek();
+                    if (run != null && run.white == white && run.black == black && run.toMove == toMove) {
+                        queue.poll();
+                    } else {
+                        run = null;
+                    }
+                } while (run != null);
+                out.printf("%s %d %d %d %d%n", toString(white, black, toMove == 1), count, whiteWins,
+                        count - whiteWins - blackWins, blackWins);
+                unique++;
+            }
+            return unique;
+        } finally {
+            for (Path file : runs) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * A sorted run file, read one entry at a time.
+     */
+    private static class Run implements Comparable<Run>, Closeable {
+        private final DataInputStream in;
+        long white;
+        long black;
+        int count;
+        int whiteWins;
+        int blackWins;
+        int toMove;
+
+        Run(Path file) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        }
+
+        /** Reads the next entry, returns false at the end of the run. */
+        boolean next() throws IOException {
+            try {
+                white = in.readLong();
+            } catch (EOFException e) {
+                return false;
+            }
+            black = in.readLong();
+            count = in.readInt();
+            whiteWins = in.readInt();
+            blackWins = in.readInt();
+            toMove = in.readInt();
+            return true;
+        }
+
+        public int compareTo(Run other) {
+            int c = compare(white, black, other.white, other.black);
+            return c != 0 ? c : Integer.compare(toMove, other.toMove);
+        }
+
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Compares two positions by their white discs, then their black discs, as unsigned numbers.
+     */
+    static int compare(long white1, long black1, long white2, long black2) {
+        int c = Long.compareUnsigned(white1, white2);
+        return c != 0 ? c : Long.compareUnsigned(black1, black2);
+    }
+
+    private static long hash(long white, long black, int toMove) {
+        return OthelloPosition.mix(white * 0x9E3779B97F4A7C15L ^ OthelloPosition.mix(black) ^ toMove);
+    }
+
+    /**
+     * Returns the discs after one of the 8 symmetries of the board, 0 is the identity. Bit 0 of the symmetry
+     * mirrors the columns, bit 1 mirrors the rows and bit 2 swaps rows and columns (after the mirroring).
+     */
+    static long transform(long discs, int symmetry) {
+        if ((symmetry & 1) != 0) {
+            discs = mirrorColumns(discs);
+        }
+        if ((symmetry & 2) != 0) {
+            // a row is a byte
+            discs = Long.reverseBytes(discs);
+        }
+        if ((symmetry & 4) != 0) {
+            discs = transpose(discs);
+        }
+        return discs;
+    }
+
+    /** Reverses the bits of every byte: column c becomes column 7 - c. */
+    private static long mirrorColumns(long x) {
+        x = ((x >>> 1) & 0x5555555555555555L) | ((x & 0x5555555555555555L) << 1);
+        x = ((x >>> 2) & 0x3333333333333333L) | ((x & 0x3333333333333333L) << 2);
+        x = ((x >>> 4) & 0x0F0F0F0F0F0F0F0FL) | ((x & 0x0F0F0F0F0F0F0F0FL) << 4);
+        return x;
+    }
+
+    /** Swaps rows and columns: the square (r, c) becomes (c, r). */
+    private static long transpose(long x) {
+        long t;
+        t = 0x0F0F0F0F00000000L & (x ^ (x << 28));
+        x ^= t ^ (t >>> 28);
+        t = 0x3333000033330000L & (x ^ (x << 14));
+        x ^= t ^ (t >>> 14);
+        t = 0x5500550055005500L & (x ^ (x << 7));
+        x ^= t ^ (t >>> 7);
+        return x;
+    }
+
+    /**
+     * Returns the position as a string of length 65, as <code>OthelloPosition.toString</code> writes it.
+     */
+    static String toString(long white, long black, boolean whiteToMove) {
+        StringBuilder s = new StringBuilder(65);
+        s.append(whiteToMove ? 'W' : 'B');
+        for (int square = 0; square < 64; square++) {
+            s.append((white >>> square & 1) != 0 ? 'O' : (black >>> square & 1) != 0 ? 'X' : 'E');
+        }
+        return s.toString();
+    }
+}
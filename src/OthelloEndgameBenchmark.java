@@ -0,0 +1,180 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Endgame benchmark: solves a suite of endgame positions exactly, checks the
+ * results against the known scores and records time, nodes and nodes per
+ * second of every position. If a baseline (the results file of an earlier
+ * run) is given, positions that got slower by more than the tolerance are
+ * flagged; by default the baseline is endgame_baseline.txt, a run stored with
+ * the code. The program exits with status 1 if a score is wrong or a position
+ * got slower, so it can be used as a regression check.
+ *
+ * A suite has one position per line: an id, the board as a string of length
+ * 65, and the exact final score (white discs - black discs, empty squares
+ * are not counted) with perfect play. Lines starting with '#' are comments.
+ *
+ * usage: java OthelloEndgameBenchmark [suite] [results] [baseline] [tolerance]
+ *        java OthelloEndgameBenchmark --generate &lt;suite&gt; &lt;positions&gt; &lt;empty squares&gt; [seed]
+ */
+
+public class OthelloEndgameBenchmark {
+
+    /** Depth that always reaches the end of the game: every empty square, plus passes. */
+    private static final int SOLVE_DEPTH = 128;
+
+    /** Positions solved faster than this are not compared to the baseline, their times are mostly noise. */
+    private static final long MIN_COMPARED_MILLIS = 20;
+
+    /** Time spent solving positions before measuring, so that the search is compiled. */
+    private static final long WARM_UP_MILLIS = 2000;
+
+    public static void main(String[] args) throws IOException, InterruptedException, IllegalMoveException {
+        if (args.length > 0 && args[0].equals("--generate")) {
+            long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+            generate(Paths.get(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]), new Random(seed));
+            return;
+        }
+        Path suite = Paths.get(args.length > 0 ? args[0] : "endgame.txt");
+        Path results = Paths.get(args.length > 1 ? args[1] : "endgame_results.txt");
+        Path baseline = Paths.get(args.length > 2 ? args[2] : "endgame_baseline.txt");
+        double tolerance = args.length > 3 ? Double.parseDouble(args[3]) : 1.25;
+
+        Map<String, Long> baselineTimes = Files.exists(baseline) ? readTimes(baseline) : null;
+        boolean failed = false;
+        long totalNodes = 0;
+        long totalMillis = 0;
+
+        List<String[]> positions = new ArrayList<>();
+        for (String line : Files.readAllLines(suite)) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                positions.add(line.split("\\s+"));
+            }
+        }
+        warmUp(positions);
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(results))) {
+            out.println("# id score expected time_ms nodes nodes_per_s");
+            System.out.printf("%-8s %6s %8s %10s %12s %12s%n", "id", "score", "expected", "time_ms", "nodes", "nodes/s");
+            for (String[] parts : positions) {
+                String id = parts[0];
+                int expected = Integer.parseInt(parts[2]);
+
+                OthelloAlgorithmAlphaBeta algorithm = new OthelloAlgorithmAlphaBeta(new OthelloEvaluatorCount(),
+                        new OthelloTranspositionTableLockless(1 << 20));
+                long start = System.nanoTime();
+                int score = solve(algorithm, new OthelloPosition(parts[1]));
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                long nodes = algorithm.getNodes();
+                long rate = nodes * 1000 / Math.max(1, millis);
+                totalNodes += nodes;
+                totalMillis += millis;
+
+                StringBuilder flags = new StringBuilder();
+                if (score != expected) {
+                    flags.append("  WRONG SCORE");
+                    failed = true;
+                }
+                Long before = baselineTimes == null ? null : baselineTimes.get(id);
+                if (before != null && millis > MIN_COMPARED_MILLIS && millis > before * tolerance) {
+                    flags.append(String.format("  SLOWER (baseline %d ms)", before));
+                    failed = true;
+                }
+                out.printf("%s %d %d %d %d %d%n", id, score, expected, millis, nodes, rate);
+                System.out.printf("%-8s %6d %8d %10d %12d %12d%s%n", id, score, expected, millis, nodes, rate, flags);
+            }
+        }
+        System.out.printf("total: %d ms, %d nodes, %d nodes/s%n", totalMillis, totalNodes,
+                totalNodes * 1000 / Math.max(1, totalMillis));
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Solve the positions of the suite, easiest first, until the warm up time is over.
+     */
+    private static void warmUp(List<String[]> positions) throws InterruptedException {
+        List<String[]> easiest = new ArrayList<>(positions);
+        easiest.sort(Comparator.comparingDouble(parts -> new OthelloPosition(parts[1]).getEmpty()));
+        long end = System.currentTimeMillis() + WARM_UP_MILLIS;
+        for (int i = 0; System.currentTimeMillis() < end && !easiest.isEmpty(); i = (i + 1) % easiest.size()) {
+            solve(new OthelloAlgorithmAlphaBeta(new OthelloEvaluatorCount(), new OthelloTranspositionTableLockless(1 << 20)),
+                    new OthelloPosition(easiest.get(i)[1]));
+        }
+    }
+
+    /**
+     * Returns the exact final score of the position with perfect play.
+     */
+    static int solve(OthelloAlgorithmAlphaBeta algorithm, OthelloPosition position) throws InterruptedException {
+        // reduced searches could miss the best move, the result would no longer be exact
+        algorithm.setLateMoveReductions(0, 0);
+        algorithm.setPlayer(position.toMove());
+        algorithm.setSearchDepth(SOLVE_DEPTH);
+        OthelloAction action = algorithm.searchAction(position);
+        if (!action.isPassMove()) {
+            return action.getValue();
+        }
+        // the player to move has to pass: solve for the opponent, unless the game is over
+        position.nextMove();
+        if (position.getMoves().size() == 0) {
+            return position.score();
+        }
+        algorithm.setPlayer(position.toMove());
+        return algorithm.searchAction(position).getValue();
+    }
+
+    /**
+     * Reads the solving times of a results file.
+     */
+    private static Map<String, Long> readTimes(Path results) throws IOException {
+        Map<String, Long> times = new HashMap<>();
+        for (String line : Files.readAllLines(results)) {
+            if (line.startsWith("#") || line.isBlank()) {
+                continue;
+            }
+            String[] parts = line.trim().split("\\s+");
+            times.put(parts[0], Long.parseLong(parts[3]));
+        }
+        return times;
+    }
+
+    /**
+     * Writes a suite of positions with the given number of empty squares, reached by random moves. The scores are
+     * computed with plain alpha-beta, without a transposition table, so that the benchmark checks the optimised
+     * search against an independent result.
+     */
+    private static void generate(Path suite, int count, int empty, Random random)
+            throws IOException, InterruptedException, IllegalMoveException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(suite))) {
+            out.println("# id board score (white - black at the end of the game, with perfect play)");
+            int generated = 0;
+            while (generated < count) {
+                OthelloPosition position = new OthelloPosition("WEEEEEEEEEEEEEEEEEEEEEEEEEEEOXEEEEEEXOEEEEEEEEEEEEEEEEEEEEEEEEEEE");
+                while (position.getEmpty() > empty) {
+                    LinkedList<OthelloAction> moves = position.getMoves();
+                    if (moves.size() == 0) {
+                        position.nextMove();
+                        if (position.getMoves().size() == 0) {
+                            break;
+                        }
+                        continue;
+                    }
+                    position = position.makeMove(moves.get(random.nextInt(moves.size())));
+                }
+                if (position.getEmpty() != empty || position.getMoves().size() == 0) {
+                    continue;
+                }
+                int score = solve(new OthelloAlgorithmAlphaBeta(new OthelloEvaluatorCount()), position.clone());
+                generated++;
+                out.printf("e%d-%02d %s %d%n", empty, generated, position, score);
+                out.flush();
+            }
+        }
+    }
+}
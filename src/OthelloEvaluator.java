@@ -14,4 +14,42 @@ public interface OthelloEvaluator {
 	/** Returns an integer, representing a heuristic evaluation of the position. */
 	public int evaluate(OthelloPosition position);
 
+	/**
+	 * Returns true if the evaluator can evaluate the children of positions of
+	 * the given board size in one call. Otherwise the children are evaluated
+	 * one by one, and are not even generated together.
+	 */
+	public default boolean supportsBatch(int size) {
+		return false;
+	}
+
+	/**
+	 * Returns a value identifying the configuration of the evaluator, e.g. to
+	 * tell whether stored values were computed by the same evaluator. By
+	 * default the class name, which identifies evaluators without parameters;
+	 * an evaluator with parameters mixes them in.
+	 */
+	public default long tag() {
+		return OthelloPosition.mix(getClass().getName().hashCode());
+	}
+
+	/**
+	 * Evaluates all children of a frontier node in one call, writing the value
+	 * of every child into <code>children.values</code>. Work that the children
+	 * share is done once. Only called if <code>supportsBatch</code> is true for
+	 * the size of the board; this default evaluates the children one by one.
+	 */
+	public default void evaluate(OthelloChildren children) {
+		int size = children.board.size();
+		for (int i = 0; i < children.count; i++) {
+			int square = children.squares[i];
+			try {
+				OthelloPosition child = children.parent.makeMove(new OthelloAction(square / size + 1, square % size + 1));
+				children.values[i] = evaluate(child);
+			} catch (IllegalMoveException e) {
+				throw new IllegalStateException("The children are made by legal moves", e);
+			}
+		}
+	}
+
 }
\ No newline at end of file
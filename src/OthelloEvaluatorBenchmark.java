@@ -0,0 +1,128 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how many evaluations per second the evaluators manage, on
+ * positions taken from random games. Then all children of the positions are
+ * evaluated, one by one after making the move as the search did before, and
+ * in one batch per position (<code>OthelloChildren</code>).
+ *
+ * usage: java [--add-modules jdk.incubator.vector] OthelloEvaluatorBenchmark [positions] [seconds per evaluator]
+ */
+
+public class OthelloEvaluatorBenchmark {
+
+    public static void main(String[] args) throws IllegalMoveException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 2;
+        OthelloPosition[] positions = randomPositions(count, new Random(42));
+
+        OthelloEvaluatorNTuple vector = new OthelloEvaluatorNTuple();
+        OthelloEvaluatorNTuple scalar = new OthelloEvaluatorNTuple();
+        scalar.vector = false;
+
+        System.out.println("Vector API available: " + OthelloEvaluatorNTuple.VECTOR_AVAILABLE);
+        if (OthelloEvaluatorNTuple.VECTOR_AVAILABLE) {
+            run("n-tuple (vector)", vector, positions, seconds);
+        }
+        run("n-tuple (scalar)", scalar, positions, seconds);
+        run("compound", new OthelloEvaluatorCompound(new OthelloEvaluatorMoves(), new OthelloEvaluatorCount()),
+                positions, seconds);
+
+        runChildren("n-tuple", vector, positions, seconds);
+        runChildren("compound", new OthelloEvaluatorCompound(new OthelloEvaluatorMoves(), new OthelloEvaluatorCount()),
+                positions, seconds);
+    }
+
+    /**
+     * Evaluate the children of the positions one by one and in batches, for the given time each.
+     */
+    private static void runChildren(String name, OthelloEvaluator evaluator, OthelloPosition[] positions,
+                                    double seconds) throws IllegalMoveException {
+        List<LinkedList<OthelloAction>> moves = new ArrayList<>();
+        for (OthelloPosition position : positions) {
+            moves.add(position.getMoves());
+        }
+        OthelloChildren children = new OthelloChildren();
+        boolean[] all = new boolean[OthelloChildren.MAX_CHILDREN];
+        Arrays.fill(all, true);
+        for (boolean batch : new boolean[]{false, true}) {
+            long sink = 0;
+            for (int round = 0; round < 2; round++) {
+                long evaluations = 0;
+                long start = System.nanoTime();
+                long end = start + (long) (seconds * 1e9);
+                while (System.nanoTime() < end) {
+                    for (int i = 0; i < positions.length; i++) {
+                        if (batch) {
+                            children.fill(positions[i], moves.get(i), all);
+                            evaluator.evaluate(children);
+                            for (int j = 0; j < children.count; j++) {
+                                sink += children.values[j];
+                            }
+                        } else {
+                            for (OthelloAction action : moves.get(i)) {
+                                sink += evaluator.evaluate(positions[i].makeMove(action));
+                            }
+                        }
+                        evaluations += moves.get(i).size();
+                    }
+                }
+                if (round == 1) {
+                    double rate = evaluations / ((System.nanoTime() - start) / 1e9);
+                    System.out.printf("%-18s %12.0f children/s      (checksum %d)%n",
+                            name + (batch ? " (batch)" : " (single)"), rate, sink);
+                }
+            }
+        }
+    }
+
+    /**
+     * Evaluate the positions over and over for the given time, after the same time of warm up.
+     */
+    private static void run(String name, OthelloEvaluator evaluator, OthelloPosition[] positions, double seconds) {
+        long sink = 0;
+        for (int round = 0; round < 2; round++) {
+            long evaluations = 0;
+            long start = System.nanoTime();
+            long end = start + (long) (seconds * 1e9);
+            while (System.nanoTime() < end) {
+                for (OthelloPosition position : positions) {
+                    sink += evaluator.evaluate(position);
+                }
+                evaluations += positions.length;
+            }
+            if (round == 1) {
+                double rate = evaluations / ((System.nanoTime() - start) / 1e9);
+                System.out.printf("%-18s %12.0f evaluations/s   (checksum %d)%n", name, rate, sink);
+            }
+        }
+    }
+
+    /**
+     * Returns positions reached by random moves from the initial position, between 4 and 60 discs.
+     */
+    static OthelloPosition[] randomPositions(int count, Random random) throws IllegalMoveException {
+        OthelloPosition[] positions = new OthelloPosition[count];
+        for (int i = 0; i < count; i++) {
+            OthelloPosition position = new OthelloPosition("WEEEEEEEEEEEEEEEEEEEEEEEEEEEOXEEEEEEXOEEEEEEEEEEEEEEEEEEEEEEEEEEE");
+            int plies = random.nextInt(57);
+            for (int ply = 0; ply < plies; ply++) {
+                LinkedList<OthelloAction> moves = position.getMoves();
+                if (moves.size() == 0) {
+                    position.nextMove();
+                    if (position.getMoves().size() == 0) {
+                        break;
+                    }
+                    continue;
+                }
+                position = position.makeMove(moves.get(random.nextInt(moves.size())));
+            }
+            positions[i] = position;
+        }
+        return positions;
+    }
+}
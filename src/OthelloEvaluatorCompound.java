@@ -1,8 +1,10 @@
-
 public class OthelloEvaluatorCompound implements OthelloEvaluator {
 
 	OthelloEvaluator eval1, eval2;
 
+	/** The values of eval1 for a batch of children, one array per thread since searches may share the evaluator */
+	private final ThreadLocal<int[]> values1 = ThreadLocal.withInitial(() -> new int[OthelloChildren.MAX_CHILDREN]);
+
 	OthelloEvaluatorCompound(OthelloEvaluator eval1, OthelloEvaluator eval2) {
 		super();
 		this.eval1 = eval1;
@@ -15,9 +17,35 @@ public class OthelloEvaluatorCompound implements OthelloEvaluator {
 		int e1 = eval1.evaluate(position);
 		int e2 = eval2.evaluate(position);
 
-		float w = position.getEmpty() / 64;
+		float w = position.getEmpty() / (position.getSize() * position.getSize());
 
 		return (int) (w * e1 + (1-w) * e2);
 	}
 
+	/** The tag depends on both heuristics and on their order */
+	public long tag() {
+		long tag = OthelloPosition.mix(getClass().getName().hashCode() + eval1.tag());
+		return OthelloPosition.mix(tag + eval2.tag());
+	}
+
+	/** Batches are supported if both heuristics support them */
+	public boolean supportsBatch(int size) {
+		return eval1.supportsBatch(size) && eval2.supportsBatch(size);
+	}
+
+	/** Compound the heuristics of all children */
+	public void evaluate(OthelloChildren children) {
+		eval1.evaluate(children);
+		int[] e1 = values1.get();
+		System.arraycopy(children.values, 0, e1, 0, children.count);
+		eval2.evaluate(children);
+
+		// every child has one empty square less than the parent
+		int size = children.parent.getSize();
+		float w = (children.parent.getEmpty() - 1) / (size * size);
+		for (int i = 0; i < children.count; i++) {
+			children.values[i] = (int) (w * e1[i] + (1-w) * children.values[i]);
+		}
+	}
+
 }
\ No newline at end of file
@@ -6,4 +6,16 @@ public class OthelloEvaluatorCount implements OthelloEvaluator {
 		return position.score();
 	}
 
+	/** Every board size can be evaluated in batches */
+	public boolean supportsBatch(int size) {
+		return true;
+	}
+
+	/** Return the score of every child */
+	public void evaluate(OthelloChildren children) {
+		for (int i = 0; i < children.count; i++) {
+			children.values[i] = Long.bitCount(children.white[i]) - Long.bitCount(children.black[i]);
+		}
+	}
+
 }
\ No newline at end of file
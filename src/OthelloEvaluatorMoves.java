@@ -34,4 +34,25 @@ public class OthelloEvaluatorMoves implements OthelloEvaluator {
 		return heuristic;
 	}
 
+	/** Every board size can be evaluated in batches */
+	public boolean supportsBatch(int size) {
+		return true;
+	}
+
+	/** The mobility heuristic of every child, with the moves generated on bitboards */
+	public void evaluate(OthelloChildren children) {
+		OthelloBitboard board = children.board;
+		for (int i = 0; i < children.count; i++) {
+			long white = children.white[i];
+			long black = children.black[i];
+			int white_moves = Long.bitCount(board.moves(white, black));
+			int black_moves = Long.bitCount(board.moves(black, white));
+			if (white_moves + black_moves != 0) {
+				children.values[i] = 64 * (white_moves - black_moves) / (white_moves + black_moves);
+			} else {
+				children.values[i] = Long.bitCount(white) - Long.bitCount(black);
+			}
+		}
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,465 @@
+import java.io.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+
+/**
+ * An evaluator based on an n-tuple network. A tuple is a fixed sequence of
+ * squares; the colors on its squares form a base 3 number, which indexes a
+ * table of weights. The evaluation is the sum of the weights of all tuples.
+ * Every shape of tuple is placed on the board in all 8 symmetric ways, and
+ * all placements of a shape share one table. A symmetric shape covers the
+ * same squares in several of these ways; each set of squares is used once. Tables exist for several game
+ * phases, chosen by the number of discs on the board. Only positions on the
+ * 8x8 board can be evaluated.
+ *
+ * The weights are stored as shorts in one flat array, in units of
+ * 1/<code>WEIGHT_SCALE</code>. They can be loaded from a binary file (see
+ * <code>save</code> for the format); without a file every table holds the
+ * values of a classic positional square table, divided among the tuples
+ * covering each square.
+ *
+ * The tuple indices are computed with the incubating Vector API when the
+ * class <code>OthelloNTupleVector</code> (in the directory vector) is compiled
+ * and the module jdk.incubator.vector is available (run with
+ * <code>--add-modules jdk.incubator.vector</code>), otherwise with a scalar
+ * loop.
+ */
+
+public class OthelloEvaluatorNTuple implements OthelloEvaluator {
+
+    /** Weights are stored in 1/WEIGHT_SCALE of the unit returned by evaluate. */
+    public static final int WEIGHT_SCALE = 16;
+
+    /** Number of squares of the longest tuple. */
+    static final int MAX_LENGTH = 10;
+
+    /** Square index that is always empty, used to pad shorter tuples. */
+    static final int PADDING = 64;
+
+    private static final int MAGIC = 0x4E545550; // "NTUP"
+    private static final int VERSION = 1;
+    /** Bytes of the magic number, version, number of phases and number of shapes. */
+    private static final int HEADER_SIZE = 16;
+
+    /** A phase per number of discs from 4 to 64 is the most <code>phase</code> can tell apart. */
+    static final int MAX_PHASES = 61;
+
+    /** The shapes of the tuples, as {row, column} pairs in the upper left part of the board. */
+    private static final int[][][] SHAPES = {
+            // 3x3 corner
+            {{0, 0}, {0, 1}, {0, 2}, {1, 0}, {1, 1}, {1, 2}, {2, 0}, {2, 1}, {2, 2}},
+            // 2x5 corner
+            {{0, 0}, {0, 1}, {0, 2}, {0, 3}, {0, 4}, {1, 0}, {1, 1}, {1, 2}, {1, 3}, {1, 4}},
+            // edge with both X-squares
+            {{0, 0}, {0, 1}, {0, 2}, {0, 3}, {0, 4}, {0, 5}, {0, 6}, {0, 7}, {1, 1}, {1, 6}},
+            // second, third and fourth row
+            {{1, 0}, {1, 1}, {1, 2}, {1, 3}, {1, 4}, {1, 5}, {1, 6}, {1, 7}},
+            {{2, 0}, {2, 1}, {2, 2}, {2, 3}, {2, 4}, {2, 5}, {2, 6}, {2, 7}},
+            {{3, 0}, {3, 1}, {3, 2}, {3, 3}, {3, 4}, {3, 5}, {3, 6}, {3, 7}},
+            // diagonals of length 8 to 4
+            {{0, 0}, {1, 1}, {2, 2}, {3, 3}, {4, 4}, {5, 5}, {6, 6}, {7, 7}},
+            {{0, 1}, {1, 2}, {2, 3}, {3, 4}, {4, 5}, {5, 6}, {6, 7}},
+            {{0, 2}, {1, 3}, {2, 4}, {3, 5}, {4, 6}, {5, 7}},
+            {{0, 3}, {1, 4}, {2, 5}, {3, 6}, {4, 7}},
+            {{0, 4}, {1, 5}, {2, 6}, {3, 7}},
+    };
+
+    /** The positional square table used for the default weights. */
+    private static final int[] SQUARE_VALUES = {
+            16, -4, 2, 1, 1, 2, -4, 16,
+            -4, -8, -1, -1, -1, -1, -8, -4,
+            2, -1, 1, 0, 0, 1, -1, 2,
+            1, -1, 0, 0, 0, 0, -1, 1,
+            1, -1, 0, 0, 0, 0, -1, 1,
+            2, -1, 1, 0, 0, 1, -1, 2,
+            -4, -8, -1, -1, -1, -1, -8, -4,
+            16, -4, 2, 1, 1, 2, -4, 16,
+    };
+
+    /** elements[j][t] is the square of the j-th element of tuple t, tuples are padded at the front. */
+    final int[][] elements;
+
+    /** Offset of the weight table of each tuple within a phase. */
+    final int[] tableOffsets;
+
+    /** Number of weights of one phase. */
+    final int phaseSize;
+
+    /**
+     * squareTuples[s] are the tuples with square s, and squarePowers[s] the place value of the square in the index of
+     * each of them, so that a disc changing color on s changes only these indices.
+     */
+    final int[][] squareTuples;
+    final int[][] squarePowers;
+
+    final int phases;
+    final short[] weights;
+
+    /** Use the Vector API to compute the tuple indices. */
+    boolean vector = VECTOR_AVAILABLE;
+
+    /** The arrays of evaluate, reused by every call of the thread, since an evaluator may be shared by searches. */
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(this::newScratch);
+
+    /** <code>OthelloNTupleVector.computeIndices</code>, or null if the Vector API cannot be used in this JVM. */
+    private static final MethodHandle VECTOR_INDICES = vectorIndices();
+
+    static final boolean VECTOR_AVAILABLE = VECTOR_INDICES != null;
+
+    /**
+     * Creates an evaluator with one phase and the default positional weights.
+     */
+    public OthelloEvaluatorNTuple() {
+        this(1);
+        int[] coverage = new int[PADDING + 1];
+        for (int[] element : elements) {
+            for (int square : element) {
+                coverage[square]++;
+            }
+        }
+        int offset = 0;
+        for (int[][] shape : SHAPES) {
+            int size = power3(shape.length);
+            for (int index = 0; index < size; index++) {
+                // decode the colors of the configuration, the first square is the most significant digit
+                float weight = 0;
+                int rest = index;
+                for (int j = shape.length - 1; j >= 0; j--) {
+                    int color = rest % 3;
+                    rest /= 3;
+                    int square = shape[j][0] * 8 + shape[j][1];
+                    int sign = color == 1 ? 1 : color == 2 ? -1 : 0;
+                    weight += (float) sign * SQUARE_VALUES[square] * WEIGHT_SCALE / coverage[square];
+                }
+                weights[offset + index] = (short) Math.round(weight);
+            }
+            offset += size;
+        }
+    }
+
+    /**
+     * Creates an evaluator with the weights of a file written by <code>save</code>.
+     *
+     * @throws IOException if the file cannot be read or does not have the layout of the tuple shapes
+     */
+    public OthelloEvaluatorNTuple(String file) throws IOException {
+        this(readPhases(file));
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            in.skipBytes(HEADER_SIZE);
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = in.readShort();
+            }
+        }
+    }
+
+    /**
+     * Creates an evaluator with all weights 0.
+     */
+    OthelloEvaluatorNTuple(int phases) {
+        this.phases = phases;
+        // the placements of all shapes, without those covering the same squares as another placement of the shape
+        int[][] placements = new int[SHAPES.length * 8][];
+        int[] placementOffsets = new int[SHAPES.length * 8];
+        int tuples = 0;
+        int offset = 0;
+        for (int[][] shape : SHAPES) {
+            long[] squareSets = new long[8];
+            int distinct = 0;
+            for (int symmetry = 0; symmetry < 8; symmetry++) {
+                int[] squares = new int[shape.length];
+                long squareSet = 0;
+                for (int k = 0; k < shape.length; k++) {
+                    squares[k] = transform(shape[k][0], shape[k][1], symmetry);
+                    squareSet |= 1L << squares[k];
+                }
+                if (!contains(squareSets, distinct, squareSet)) {
+                    squareSets[distinct++] = squareSet;
+                    placements[tuples] = squares;
+                    placementOffsets[tuples] = offset;
+                    tuples++;
+                }
+            }
+            offset += power3(shape.length);
+        }
+        phaseSize = offset;
+
+        elements = new int[MAX_LENGTH][tuples];
+        tableOffsets = new int[tuples];
+        for (int t = 0; t < tuples; t++) {
+            int[] squares = placements[t];
+            for (int j = 0; j < MAX_LENGTH; j++) {
+                int k = j - (MAX_LENGTH - squares.length);
+                elements[j][t] = k < 0 ? PADDING : squares[k];
+            }
+            tableOffsets[t] = placementOffsets[t];
+        }
+        weights = new short[phases * phaseSize];
+
+        squareTuples = new int[PADDING][];
+        squarePowers = new int[PADDING][];
+        for (int square = 0; square < PADDING; square++) {
+            int count = 0;
+            for (int[] element : elements) {
+                for (int tuple = 0; tuple < tuples; tuple++) {
+                    if (element[tuple] == square) {
+                        count++;
+                    }
+                }
+            }
+            squareTuples[square] = new int[count];
+            squarePowers[square] = new int[count];
+            count = 0;
+            for (int j = 0; j < MAX_LENGTH; j++) {
+                for (int tuple = 0; tuple < tuples; tuple++) {
+                    if (elements[j][tuple] == square) {
+                        squareTuples[square][count] = tuple;
+                        squarePowers[square][count] = power3(MAX_LENGTH - 1 - j);
+                        count++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the weights to a file. The format is big endian: the magic number
+     * 0x4E545550, the version 1, the number of phases, the number of shapes,
+     * and then for every phase and every shape 3^length shorts.
+     */
+    public void save(String file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(phases);
+            out.writeInt(SHAPES.length);
+            for (short weight : weights) {
+                out.writeShort(weight);
+            }
+        }
+    }
+
+    /**
+     * Returns the n-tuple evaluation of the position, positive if it is good for white.
+     * @throws IllegalArgumentException if the position is not on an 8x8 board, the tuples are placed on that board
+     */
+    public int evaluate(OthelloPosition position) {
+        if (position.getSize() != 8) {
+            throw new IllegalArgumentException("The n-tuple evaluator only evaluates 8x8 positions, not "
+                    + position.getSize() + "x" + position.getSize());
+        }
+        Scratch arrays = scratch.get();
+        int discs = fillState(position, arrays.state);
+        computeIndices(arrays.state, arrays.indices);
+        return sum(arrays.indices, phase(discs));
+    }
+
+    /** The tag depends on the number of phases and on all weights. */
+    public long tag() {
+        long tag = OthelloPosition.mix(getClass().getName().hashCode() + phases);
+        return OthelloPosition.mix(tag + Arrays.hashCode(weights));
+    }
+
+    /** Only children of 8x8 positions can be evaluated. */
+    public boolean supportsBatch(int size) {
+        return size == 8;
+    }
+
+    /**
+     * Evaluates the children of an 8x8 position. The tuple indices of the parent are computed once; the indices of a
+     * child differ from them only in the tuples with the move or a flipped disc, which are updated.
+     */
+    public void evaluate(OthelloChildren children) {
+        Scratch arrays = scratch.get();
+        int discs = fillState(children.parent, arrays.state);
+        int[] parentIndices = arrays.parentIndices;
+        computeIndices(arrays.state, parentIndices);
+        int phase = phase(discs + 1);
+
+        int[] indices = arrays.indices;
+        int color = children.whiteMoves ? 1 : 2;
+        // a flipped disc changes from the opponent's color to the mover's
+        int flip = children.whiteMoves ? -1 : 1;
+        for (int i = 0; i < children.count; i++) {
+            System.arraycopy(parentIndices, 0, indices, 0, indices.length);
+            update(indices, children.squares[i], color);
+            for (long flips = children.flips[i]; flips != 0; flips &= flips - 1) {
+                update(indices, Long.numberOfTrailingZeros(flips), flip);
+            }
+            children.values[i] = sum(indices, phase);
+        }
+    }
+
+    /** Adds change times the place value of the square to the indices of the tuples with the square. */
+    private void update(int[] indices, int square, int change) {
+        int[] tuples = squareTuples[square];
+        int[] powers = squarePowers[square];
+        for (int k = 0; k < tuples.length; k++) {
+            indices[tuples[k]] += change * powers[k];
+        }
+    }
+
+    /**
+     * Write the colors of the position into <code>state</code>: 0 for empty, 1 for white and 2 for black.
+     * @return the number of discs on the board
+     */
+    int fillState(OthelloPosition position, int[] state) {
+        int discs = 0;
+        for (int i = 0; i < 8; i++) {
+            for (int j = 0; j < 8; j++) {
+                char c = position.board[i + 1][j + 1];
+                if (c == 'W') {
+                    state[i * 8 + j] = 1;
+                    discs++;
+                } else if (c == 'B') {
+                    state[i * 8 + j] = 2;
+                    discs++;
+                } else {
+                    state[i * 8 + j] = 0;
+                }
+            }
+        }
+        return discs;
+    }
+
+    /** Computes the index of every tuple. */
+    void computeIndices(int[] state, int[] indices) {
+        if (vector) {
+            try {
+                VECTOR_INDICES.invokeExact(state, elements, indices);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        } else {
+            for (int t = 0; t < indices.length; t++) {
+                int index = 0;
+                for (int[] element : elements) {
+                    index = index * 3 + state[element[t]];
+                }
+                indices[t] = index;
+            }
+        }
+    }
+
+    /** Returns the evaluation of the given tuple indices. */
+    int sum(int[] indices, int phase) {
+        int offset = phase * phaseSize;
+        int sum = 0;
+        for (int t = 0; t < indices.length; t++) {
+            sum += weights[offset + tableOffsets[t] + indices[t]];
+        }
+        return sum / WEIGHT_SCALE;
+    }
+
+    /** Returns the phase of a position with the given number of discs. */
+    int phase(int discs) {
+        return Math.min(phases - 1, (discs - 4) * phases / 61);
+    }
+
+    /** Returns true if the first count values contain the value. */
+    private static boolean contains(long[] values, int count, long value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Returns the square of (row, column) under one of the 8 symmetries of the board. */
+    private static int transform(int row, int column, int symmetry) {
+        if ((symmetry & 1) != 0) {
+            column = 7 - column;
+        }
+        if ((symmetry & 2) != 0) {
+            row = 7 - row;
+        }
+        if ((symmetry & 4) != 0) {
+            int tmp = row;
+            row = column;
+            column = tmp;
+        }
+        return row * 8 + column;
+    }
+
+    private static int power3(int n) {
+        int result = 1;
+        for (int i = 0; i < n; i++) {
+            result *= 3;
+        }
+        return result;
+    }
+
+    private static int readPhases(String file) throws IOException {
+        long length = new File(file).length();
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not an n-tuple weight file: " + file);
+            }
+            int phases = in.readInt();
+            if (in.readInt() != SHAPES.length) {
+                throw new IOException("The weight file does not match the tuple shapes: " + file);
+            }
+            if (phases < 1 || phases > MAX_PHASES) {
+                throw new IOException("The weight file has " + phases + " phases, not 1 to " + MAX_PHASES + ": "
+                        + file);
+            }
+            long expected = HEADER_SIZE + 2L * phases * tableSize();
+            if (length != expected) {
+                throw new IOException("The weight file has " + length + " bytes, not " + expected + ": " + file);
+            }
+            return phases;
+        }
+    }
+
+    /** Returns the number of weights of one phase: 3^length for every shape. */
+    private static int tableSize() {
+        int size = 0;
+        for (int[][] shape : SHAPES) {
+            size += power3(shape.length);
+        }
+        return size;
+    }
+
+    private Scratch newScratch() {
+        return new Scratch(tableOffsets.length);
+    }
+
+    /**
+     * The arrays used by one thread for its evaluations.
+     */
+    private static class Scratch {
+        /** The colors of the squares, see <code>fillState</code>; the padding square stays empty. */
+        final int[] state = new int[PADDING + 1];
+        final int[] indices;
+        /** The indices of the parent of a batch of children. */
+        final int[] parentIndices;
+
+        Scratch(int tuples) {
+            indices = new int[tuples];
+            parentIndices = new int[tuples];
+        }
+    }
+
+    /**
+     * Looks up the vector implementation of <code>computeIndices</code>. It is loaded by name, so that this class
+     * compiles and runs without the incubator module, and called once, since a class compiled against the module
+     * only fails to link when the module is missing at run time.
+     *
+     * @return the method, or null if the class is missing or the Vector API cannot be used in this JVM
+     */
+    private static MethodHandle vectorIndices() {
+        try {
+            MethodHandle handle = MethodHandles.lookup().findStatic(Class.forName("OthelloNTupleVector"),
+                    "computeIndices", MethodType.methodType(void.class, int[].class, int[][].class, int[].class));
+            handle.invokeExact(new int[PADDING + 1], new int[][]{{PADDING}}, new int[1]);
+            return handle;
+        } catch (Throwable e) {
+            // ClassNotFoundException without the class, NoClassDefFoundError without the module
+            return null;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates random games quickly, for tuning data, opening books and tests.
+ * The games are played on bitboards (<code>OthelloBitboard</code>) and written
+ * as game records (<code>OthelloGameRecord</code>), one per line, into a
+ * buffer per thread. Nothing is allocated per game or per move.
+ *
+ * Every thread has its own random generator, split from the one of the seed.
+ * With a guided fraction greater than 0, that fraction of the moves is not
+ * chosen at random but leaves the opponent the fewest moves.
+ *
+ * usage: java OthelloGameGenerator [games] [threads] [output file, - for none] [guided fraction] [seed]
+ *        java OthelloGameGenerator --scaling [games] [max threads]
+ *
+ * With --scaling the games are generated with 1, 2, 4, ... threads without
+ * output, and the games per second are printed for each.
+ */
+
+public class OthelloGameGenerator {
+
+    /** Games a thread takes at a time from the shared counter. */
+    private static final int BLOCK = 256;
+
+    /** Size of the output buffer of a thread. */
+    private static final int BUFFER = 1 << 20;
+
+    /** Longest record: two characters per move and pass, the score and the line end. */
+    private static final int MAX_RECORD = 2 * 130 + 8;
+
+    private final OthelloBitboard board = OthelloBitboard.LARGE;
+    private final long white;
+    private final long black;
+    private final double guided;
+    private final FileChannel output;
+    private final AtomicLong next = new AtomicLong();
+    private final AtomicLong plies = new AtomicLong();
+
+    /**
+     * Creates a generator.
+     *
+     * @param guided the fraction of moves that are chosen by mobility instead of at random
+     * @param output the file to write the records to, or null to discard them
+     */
+    public OthelloGameGenerator(double guided, FileChannel output) {
+        OthelloPosition initial = new OthelloPosition(OthelloGameRecord.INITIAL_POSITION);
+        this.white = OthelloBitboard.discs(initial, true);
+        this.black = OthelloBitboard.discs(initial, false);
+        this.guided = guided;
+        this.output = output;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0 && args[0].equals("--scaling")) {
+            long games = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000;
+            int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            // a first run to compile the code
+            new OthelloGameGenerator(0, null).generate(games / 10, threads, new SplittableRandom(1));
+            double base = 0;
+            for (int t = 1; t <= threads; t = t < threads && t * 2 > threads ? threads : t * 2) {
+                double rate = report(new OthelloGameGenerator(0, null), games, t, new SplittableRandom(1));
+                if (base == 0) {
+                    base = rate;
+                }
+                System.out.printf("  speedup %.2f%n", rate / base);
+            }
+            return;
+        }
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String file = args.length > 2 ? args[2] : "games.txt";
+        double guided = args.length > 3 ? Double.parseDouble(args[3]) : 0;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        if (file.equals("-")) {
+            report(new OthelloGameGenerator(guided, null), games, threads, new SplittableRandom(seed));
+        } else {
+            try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                report(new OthelloGameGenerator(guided, channel), games, threads, new SplittableRandom(seed));
+            }
+        }
+        System.out.println();
+    }
+
+    /**
+     * Generates the games and prints the games and moves per second.
+     *
+     * @return the games per second
+     */
+    private static double report(OthelloGameGenerator generator, long games, int threads, SplittableRandom random)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        generator.generate(games, threads, random);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d threads: %d games in %.2f s, %.0f games/s, %.0f moves/s", threads, games, seconds,
+                games / seconds, generator.plies.get() / seconds);
+        return games / seconds;
+    }
+
+    /**
+     * Generates the given number of games on the given number of threads.
+     *
+     * @param random the generator the generators of the threads are split from
+     */
+    public void generate(long games, int threads, SplittableRandom random) throws InterruptedException {
+        next.set(0);
+        plies.set(0);
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(random.split(), games);
+            workers[i] = new Thread(worker, "generator-" + i);
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    /**
+     * The games of one thread.
+     */
+    private class Worker implements Runnable {
+        private final SplittableRandom random;
+        private final long games;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER);
+        private long moves;
+
+        Worker(SplittableRandom random, long games) {
+            this.random = random;
+            this.games = games;
+        }
+
+        public void run() {
+            while (true) {
+                long first = next.getAndAdd(BLOCK);
+                if (first >= games) {
+                    break;
+                }
+                for (long game = first; game < Math.min(games, first + BLOCK); game++) {
+                    if (buffer.remaining() < MAX_RECORD) {
+                        flush();
+                    }
+                    play();
+                }
+            }
+            flush();
+            plies.addAndGet(moves);
+        }
+
+        /**
+         * Plays one game from the initial position and writes its record into the buffer.
+         */
+        private void play() {
+            long own = white;
+            long opponent = black;
+            boolean whiteToMove = true;
+            boolean passed = false;
+            while (true) {
+                long legal = board.moves(own, opponent);
+                if (legal == 0) {
+                    if (passed || board.moves(opponent, own) == 0) {
+                        break;
+                    }
+                    passed = true;
+                    buffer.put((byte) '-').put((byte) '-');
+                } else {
+                    passed = false;
+                    int move = guided > 0 && random.nextDouble() < guided
+                            ? fewestReplies(own, opponent, legal) : randomMove(legal);
+                    long flips = board.flips(own, opponent, move);
+                    own |= flips | 1L << move;
+                    opponent &= ~flips;
+                    buffer.put((byte) ('a' + move % 8)).put((byte) ('1' + move / 8));
+                }
+                long swap = own;
+                own = opponent;
+                opponent = swap;
+                whiteToMove = !whiteToMove;
+                moves++;
+            }
+            int score = Long.bitCount(own) - Long.bitCount(opponent);
+            writeScore(whiteToMove ? score : -score);
+        }
+
+        /** Returns the square of a random legal move: the k-th set bit of the moves. */
+        private int randomMove(long legal) {
+            for (int k = random.nextInt(Long.bitCount(legal)); k > 0; k--) {
+                legal &= legal - 1;
+            }
+            return Long.numberOfTrailingZeros(legal);
+        }
+
+        /** Returns the square of the move that leaves the opponent the fewest moves. */
+        private int fewestReplies(long own, long opponent, long legal) {
+            int best = -1;
+            int fewest = Integer.MAX_VALUE;
+            for (long m = legal; m != 0; m &= m - 1) {
+                int move = Long.numberOfTrailingZeros(m);
+                long flips = board.flips(own, opponent, move);
+                int replies = Long.bitCount(board.moves(opponent & ~flips, own | flips | 1L << move));
+                if (replies < fewest) {
+                    fewest = replies;
+                    best = move;
+                }
+            }
+            return best;
+        }
+
+        /** Writes a space, the score and the end of the line. */
+        private void writeScore(int score) {
+            buffer.put((byte) ' ');
+            if (score < 0) {
+                buffer.put((byte) '-');
+                score = -score;
+            }
+            if (score >= 10) {
+                buffer.put((byte) ('0' + score / 10));
+            }
+            buffer.put((byte) ('0' + score % 10)).put((byte) '\n');
+        }
+
+        /** Writes the buffer to the output, the threads take turns. */
+        private void flush() {
+            buffer.flip();
+            if (output != null) {
+                synchronized (output) {
+                    try {
+                        while (buffer.hasRemaining()) {
+                            output.write(buffer);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+import java.util.LinkedList;
+
+/**
+ * The record of a game, played from the initial position. It is written as one
+ * line: the moves, two characters each, followed by a space and the final
+ * score (#white discs - #black discs). A move is written as the column letter
+ * and the row number, e.g. <code>f5</code> for the action (5,6), and a pass as
+ * <code>--</code>. A pass is only written when the other player can move, so
+ * a record ends with the last move played.
+ *
+ * Example: <code>e6f4c3c4d3 ... -- h8 12</code>, without the spaces between the
+ * moves.
+ */
+
+public class OthelloGameRecord {
+
+    /** The position every game starts from, white moves first. */
+    public static final String INITIAL_POSITION = "WEEEEEEEEEEEEEEEEEEEEEEEEEEEOXEEEEEEXOEEEEEEEEEEEEEEEEEEEEEEEEEEE";
+
+    private final StringBuilder moves = new StringBuilder();
+    private int score;
+
+    /** Appends a move to the record. */
+    public void add(OthelloAction action) {
+        moves.append(square(action));
+    }
+
+    /** Sets the final score of the game. */
+    public void setScore(int score) {
+        this.score = score;
+    }
+
+    /** Returns the final score of the game, #white discs - #black discs. */
+    public int getScore() {
+        return score;
+    }
+
+    /** Returns the moves of the game, passes included. */
+    public LinkedList<OthelloAction> getMoves() {
+        LinkedList<OthelloAction> actions = new LinkedList<>();
+        for (int i = 0; i + 1 < moves.length(); i += 2) {
+            actions.add(action(moves.substring(i, i + 2)));
+        }
+        return actions;
+    }
+
+    /** Returns the number of moves, passes included. */
+    public int length() {
+        return moves.length() / 2;
+    }
+
+    public String toString() {
+        return moves + " " + score;
+    }
+
+    /**
+     * Reads a record written by <code>toString</code>.
+     * @throws IllegalArgumentException if the line is not a game record
+     */
+    public static OthelloGameRecord parse(String line) {
+        String[] parts = line.trim().split(" ");
+        if (parts.length != 2 || parts[0].length() % 2 != 0) {
+            throw new IllegalArgumentException("Not a game record: " + line);
+        }
+        OthelloGameRecord record = new OthelloGameRecord();
+        record.moves.append(parts[0]);
+        try {
+            record.score = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a game record: " + line);
+        }
+        return record;
+    }
+
+    /** Returns the two characters of a move, e.g. "f5", or "--" for a pass. */
+    public static String square(OthelloAction action) {
+        if (action.isPassMove()) {
+            return "--";
+        }
+        return "" + (char) ('a' + action.getColumn() - 1) + action.getRow();
+    }
+
+    /** Returns the action of two characters written by <code>square</code>. */
+    public static OthelloAction action(String square) {
+        if (square.equals("--")) {
+            return new OthelloAction("pass");
+        }
+        return new OthelloAction(square.charAt(1) - '0', square.charAt(0) - 'a' + 1);
+    }
+}
@@ -0,0 +1,21 @@
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event of an interrupted search. It starts when the search is
+ * asked to stop and ends when the search has stopped, so its duration is the
+ * interrupt latency.
+ */
+
+@Name("othello.Interrupt")
+@Label("Search Interrupt")
+@Category("Othello")
+@Description("Time from the interrupt of a search until it has stopped")
+class OthelloInterruptEvent extends Event {
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Nodes")
+    @Description("Nodes searched before the search stopped")
+    long nodes;
+}
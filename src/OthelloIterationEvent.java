@@ -0,0 +1,34 @@
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event of one search of <code>OthelloAlgorithmAlphaBeta</code>,
+ * i.e., one iteration of the iterative deepening. Its duration is the time of
+ * the search; interrupted searches are recorded too.
+ */
+
+@Name("othello.Iteration")
+@Label("Search Iteration")
+@Category("Othello")
+@Description("One iteration of the iterative deepening search")
+class OthelloIterationEvent extends Event {
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Evaluations")
+    @Description("Calls of the evaluator")
+    long evaluations;
+
+    @Label("Best Move")
+    String bestMove;
+
+    @Label("Value")
+    int value;
+
+    @Label("Completed")
+    @Description("False if the search was interrupted")
+    boolean completed;
+}
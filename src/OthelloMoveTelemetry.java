@@ -0,0 +1,157 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Telemetry of one move: what the iterative deepening reached in the time it
+ * had. It is written as one line of space separated <code>key=value</code>
+ * pairs, e.g.
+ *
+ * <code>position=W...E empties=60 depth=7 interrupted=8 nodes=812345 time=4752 budget=4750 limit=5000 latency=310 startup=95</code>
+ *
+ * <code>depth</code> is the deepest completed search, <code>interrupted</code>
+ * the depth of the search that was stopped (0 if none). Times are in
+ * milliseconds: <code>time</code> from the start of the search to the move,
+ * <code>budget</code> the time the search was given, <code>limit</code> the
+ * time limit of the move and <code>startup</code> the time from the start of
+ * the JVM to the search. <code>latency</code> is the time in microseconds
+ * from the interrupt until the search stopped.
+ */
+
+public class OthelloMoveTelemetry {
+
+    String position;
+    int empties;
+    int depth;
+    int interrupted;
+    long nodes;
+    long time;
+    long budget;
+    long limit;
+    long latency;
+    long startup;
+
+    /**
+     * Appends the line of the move to the file. The file is opened for every line, so that the engines of both
+     * players and of many games can log into the same file.
+     */
+    public void append(Path file) throws IOException {
+        Files.write(file, (this + "\n").getBytes(StandardCharsets.US_ASCII), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /** Returns the position searched, as written by <code>OthelloPosition.toString</code>. */
+    public String getPosition() {
+        return position;
+    }
+
+    /** Returns the number of empty squares of the position. */
+    public int getEmpties() {
+        return empties;
+    }
+
+    /** Returns the deepest completed search. */
+    public int getDepth() {
+        return depth;
+    }
+
+    /** Returns the depth of the search that was interrupted, 0 if none was. */
+    public int getInterrupted() {
+        return interrupted;
+    }
+
+    /** Returns the nodes visited by all searches of the move. */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /** Returns the time from the start of the search to the move, in milliseconds. */
+    public long getTime() {
+        return time;
+    }
+
+    /** Returns the time the search was given, in milliseconds. */
+    public long getBudget() {
+        return budget;
+    }
+
+    /** Returns the time limit of the move, in milliseconds. */
+    public long getLimit() {
+        return limit;
+    }
+
+    /** Returns the time from the interrupt until the search stopped, in microseconds, 0 if it was not interrupted. */
+    public long getLatency() {
+        return latency;
+    }
+
+    /** Returns the time from the start of the JVM to the search, in milliseconds. */
+    public long getStartup() {
+        return startup;
+    }
+
+    public String toString() {
+        return "position=" + position + " empties=" + empties + " depth=" + depth + " interrupted=" + interrupted
+                + " nodes=" + nodes + " time=" + time + " budget=" + budget + " limit=" + limit
+                + " latency=" + latency + " startup=" + startup;
+    }
+
+    /**
+     * Reads a line written by <code>toString</code>. Unknown keys are ignored, so that older readers can read lines
+     * with more fields.
+     * @throws IllegalArgumentException if the line is not a telemetry line
+     */
+    public static OthelloMoveTelemetry parse(String line) {
+        OthelloMoveTelemetry telemetry = new OthelloMoveTelemetry();
+        for (String field : line.trim().split(" ")) {
+            String[] pair = field.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Not a telemetry line: " + line);
+            }
+            try {
+                switch (pair[0]) {
+                    case "position":
+                        telemetry.position = pair[1];
+                        break;
+                    case "empties":
+                        telemetry.empties = Integer.parseInt(pair[1]);
+                        break;
+                    case "depth":
+                        telemetry.depth = Integer.parseInt(pair[1]);
+                        break;
+                    case "interrupted":
+                        telemetry.interrupted = Integer.parseInt(pair[1]);
+                        break;
+                    case "nodes":
+                        telemetry.nodes = Long.parseLong(pair[1]);
+                        break;
+                    case "time":
+                        telemetry.time = Long.parseLong(pair[1]);
+                        break;
+                    case "budget":
+                        telemetry.budget = Long.parseLong(pair[1]);
+                        break;
+                    case "limit":
+                        telemetry.limit = Long.parseLong(pair[1]);
+                        break;
+                    case "latency":
+                        telemetry.latency = Long.parseLong(pair[1]);
+                        break;
+                    case "startup":
+                        telemetry.startup = Long.parseLong(pair[1]);
+                        break;
+                    default:
+                        break;
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a telemetry line: " + line);
+            }
+        }
+        if (telemetry.position == null) {
+            throw new IllegalArgumentException("Not a telemetry line: " + line);
+        }
+        return telemetry;
+    }
+}
@@ -15,6 +15,16 @@ public class OthelloPosition {
      */
     protected static final int BOARD_SIZE = 8;
 
+    /**
+     * The size of the small variant of the game, played on a 6x6 board.
+     */
+    public static final int SMALL_BOARD_SIZE = 6;
+
+    /**
+     * The board size of this position, BOARD_SIZE or SMALL_BOARD_SIZE.
+     */
+    protected int size = BOARD_SIZE;
+
     /**
      * True if the first player (white) has the move.
      */
@@ -28,31 +38,73 @@ public class OthelloPosition {
      * the upper left corner, <code>board[1][8]</code> the upper right corner,
      * <code>board[8][1]</code> the lower left corner, and <code>board[8][8]</code>
      * the lower left corner. In the array, the charachters 'E', 'W', and 'B' are
-     * used to represent empty, white, and black board squares, respectively.
+     * used to represent empty, white, and black board squares, respectively. On a
+     * 6x6 board, the array is 8x8.
      */
     protected char[][] board;
 
+    /**
+     * Random keys for each color on each square, for white to move and for the 6x6 board, used to hash positions.
+     * They are generated from a fixed seed, so that hashes are the same in every run.
+     */
+    private static final long[] WHITE_KEYS = new long[BOARD_SIZE * BOARD_SIZE];
+    private static final long[] BLACK_KEYS = new long[BOARD_SIZE * BOARD_SIZE];
+    private static final long WHITE_TO_MOVE_KEY;
+    private static final long SMALL_BOARD_KEY;
+
+    static {
+        long seed = 0x5DEECE66DL;
+        for (int i = 0; i < BOARD_SIZE * BOARD_SIZE; i++) {
+            WHITE_KEYS[i] = mix(seed += 0x9E3779B97F4A7C15L);
+            BLACK_KEYS[i] = mix(seed += 0x9E3779B97F4A7C15L);
+        }
+        WHITE_TO_MOVE_KEY = mix(seed += 0x9E3779B97F4A7C15L);
+        SMALL_BOARD_KEY = mix(seed + 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * SplitMix64 finalizer, turns a counter into a well distributed random number.
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
     /**
      * Creates a new position and sets all squares to empty.
      */
     public OthelloPosition() {
-        board = new char[BOARD_SIZE + 2][BOARD_SIZE + 2];
-        for (int i = 0; i < BOARD_SIZE + 2; i++)
-            for (int j = 0; j < BOARD_SIZE + 2; j++)
+        this(BOARD_SIZE);
+    }
+
+    /**
+     * Creates a new position on a board of the given size and sets all squares to empty.
+     */
+    public OthelloPosition(int size) {
+        this.size = size;
+        board = new char[size + 2][size + 2];
+        for (int i = 0; i < size + 2; i++)
+            for (int j = 0; j < size + 2; j++)
                 board[i][j] = 'E';
 
     }
 
+    /**
+     * Creates a position from a string of length 65, or 37 for a 6x6 board: the player to move ('W' or 'B'),
+     * followed by the squares row by row ('E' empty, 'O' white, 'X' black).
+     */
     public OthelloPosition(String s) {
-        if (s.length() != 65) {
-            board = new char[BOARD_SIZE + 2][BOARD_SIZE + 2];
-            for (int i = 0; i < BOARD_SIZE + 2; i++)
-                for (int j = 0; j < BOARD_SIZE + 2; j++)
+        size = s.length() == SMALL_BOARD_SIZE * SMALL_BOARD_SIZE + 1 ? SMALL_BOARD_SIZE : BOARD_SIZE;
+        if (s.length() != size * size + 1) {
+            board = new char[size + 2][size + 2];
+            for (int i = 0; i < size + 2; i++)
+                for (int j = 0; j < size + 2; j++)
                     board[i][j] = 'E';
         } else {
-            board = new char[BOARD_SIZE + 2][BOARD_SIZE + 2];
+            board = new char[size + 2][size + 2];
             maxPlayer = s.charAt(0) == 'W';
-            for (int i = 1; i <= 64; i++) {
+            for (int i = 1; i <= size * size; i++) {
                 char c;
                 if (s.charAt(i) == 'E') {
                     c = 'E';
@@ -61,8 +113,8 @@ public class OthelloPosition {
                 } else {
                     c = 'B';
                 }
-                int column = ((i - 1) % 8) + 1;
-                int row = (i - 1) / 8 + 1;
+                int column = ((i - 1) % size) + 1;
+                int row = (i - 1) / size + 1;
                 board[row][column] = c;
             }
         }
@@ -78,8 +130,8 @@ public class OthelloPosition {
      */
     public LinkedList<OthelloAction> getMoves() {
         LinkedList<OthelloAction> moves = new LinkedList<>();
-        for (int i = 0; i < BOARD_SIZE; i++)
-            for (int j = 0; j < BOARD_SIZE; j++)
+        for (int i = 0; i < size; i++)
+            for (int j = 0; j < size; j++)
                 if (isCandidate(i + 1, j + 1) && isMove(i + 1, j + 1))
                     moves.add(new OthelloAction(i + 1, j + 1));
         return moves;
@@ -121,7 +173,7 @@ public class OthelloPosition {
     private boolean checkEast(int row, int column) {
         if (!isOpponentSquare(row, column + 1))
             return false;
-        for (int i = column + 2; i <= BOARD_SIZE; i++) {
+        for (int i = column + 2; i <= size; i++) {
             if (isFree(row, i))
                 return false;
             if (isOwnSquare(row, i))
@@ -136,7 +188,7 @@ public class OthelloPosition {
     private boolean checkSouth(int row, int column) {
         if (!isOpponentSquare(row + 1, column))
             return false;
-        for (int i = row + 2; i <= BOARD_SIZE; i++) {
+        for (int i = row + 2; i <= size; i++) {
             if (isFree(i, column))
                 return false;
             if (isOwnSquare(i, column))
@@ -166,7 +218,7 @@ public class OthelloPosition {
     private boolean checkNorthEast(int row, int column) {
         if (!isOpponentSquare(row - 1, column + 1))
             return false;
-        for (int i = 2; row - i > 0 && column + i <= BOARD_SIZE; i++) {
+        for (int i = 2; row - i > 0 && column + i <= size; i++) {
             if (isFree(row - i, column + i))
                 return false;
             if (isOwnSquare(row - i, column + i))
@@ -181,7 +233,7 @@ public class OthelloPosition {
     private boolean checkSouthEast(int row, int column) {
         if (!isOpponentSquare(row + 1, column + 1))
             return false;
-        for (int i = 2; row + i <= BOARD_SIZE && column + i <= BOARD_SIZE; i++) {
+        for (int i = 2; row + i <= size && column + i <= size; i++) {
             if (isFree(row + i, column + i))
                 return false;
             if (isOwnSquare(row + i, column + i))
@@ -196,7 +248,7 @@ public class OthelloPosition {
     private boolean checkSouthWest(int row, int column) {
         if (!isOpponentSquare(row + 1, column - 1))
             return false;
-        for (int i = 2; row + i <= BOARD_SIZE && column - i > 0; i++) {
+        for (int i = 2; row + i <= size && column - i > 0; i++) {
             if (isFree(row + i, column - i))
                 return false;
             if (isOwnSquare(row + i, column - i))
@@ -271,6 +323,13 @@ public class OthelloPosition {
 
     /* toMove */
 
+    /**
+     * Returns the size of the board, 8 or 6.
+     */
+    public int getSize() {
+        return size;
+    }
+
     /**
      * Returns true if the first player (white) has the move, otherwise false.
      */
@@ -413,13 +472,32 @@ public class OthelloPosition {
      * Returns a new <code>OthelloPosition</code>, identical to the current one.
      */
     protected OthelloPosition clone() {
-        OthelloPosition newPosition = new OthelloPosition();
+        OthelloPosition newPosition = new OthelloPosition(size);
         newPosition.maxPlayer = maxPlayer;
-        for (int i = 0; i < BOARD_SIZE + 2; i++)
-            System.arraycopy(board[i], 0, newPosition.board[i], 0, BOARD_SIZE + 2);
+        for (int i = 0; i < size + 2; i++)
+            System.arraycopy(board[i], 0, newPosition.board[i], 0, size + 2);
         return newPosition;
     }
 
+    /**
+     * Returns a 64 bit Zobrist hash of the position, including the player to move and the board size, so that
+     * positions of both sizes can share a transposition table.
+     */
+    public long hash() {
+        long hash = maxPlayer ? WHITE_TO_MOVE_KEY : 0;
+        if (size == SMALL_BOARD_SIZE)
+            hash ^= SMALL_BOARD_KEY;
+        for (int i = 1; i <= size; i++) {
+            for (int j = 1; j <= size; j++) {
+                if (board[i][j] == 'W')
+                    hash ^= WHITE_KEYS[(i - 1) * BOARD_SIZE + j - 1];
+                else if (board[i][j] == 'B')
+                    hash ^= BLACK_KEYS[(i - 1) * BOARD_SIZE + j - 1];
+            }
+        }
+        return hash;
+    }
+
     /* illustrate and other output functions */
 
     public String toString() {
@@ -430,8 +508,8 @@ public class OthelloPosition {
         } else {
             s.append("B");
         }
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
+        for (int i = 1; i <= size; i++) {
+            for (int j = 1; j <= size; j++) {
                 d = board[i][j];
                 if (d == 'W') {
                     c = 'O';
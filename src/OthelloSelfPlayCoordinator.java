@@ -0,0 +1,365 @@
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Coordinator of a self-play farm. It starts worker processes, see
+ * <code>OthelloSelfPlayWorker</code>, hands out games over a socket, collects
+ * the records and merges the results. Every worker is a separate JVM, so a
+ * crash or a full heap only takes down that worker: dead workers are
+ * restarted, and the game a worker was playing is given to another one.
+ *
+ * Games come in pairs: every opening, random moves from the initial position,
+ * is played once with engine A as white and once with engine B as white. The
+ * engines are written as described in <code>OthelloSelfPlayWorker</code>.
+ * The records are written to a file, one game per line, and the merged
+ * statistics are printed at the end.
+ *
+ * The coordinator listens on the loopback interface only. Given the address
+ * of another interface, or 0.0.0.0 for all of them, workers started by hand
+ * on other machines (<code>java OthelloSelfPlayWorker &lt;host&gt; &lt;port&gt;</code>)
+ * can join; use 0 local workers to only serve those.
+ *
+ * A worker that does not answer within the time of a whole game, plus a
+ * minute, is taken to hang: its connection is closed, its game is given to
+ * another worker, and if it is a local worker it is killed and restarted.
+ *
+ * usage: java OthelloSelfPlayCoordinator [workers] [games] [millis per move] [opening moves]
+ *        [engine A] [engine B] [records file] [port] [address]
+ */
+
+public class OthelloSelfPlayCoordinator {
+
+    /** Attempts to play a game before it is given up, so that a game crashing its workers can not stop the farm. */
+    private static final int MAX_ATTEMPTS = 3;
+
+    /** Moves of a game the lease of a worker allows for, more than any game has. */
+    private static final int LEASE_MOVES = 64;
+
+    /** Time a worker may need on top of the moves, e.g. to start its JVM, in milliseconds. */
+    private static final int LEASE_SLACK = 60000;
+
+    private final int millis;
+    private final String engineA;
+    private final String engineB;
+    private final BlockingDeque<Game> pending = new LinkedBlockingDeque<>();
+    private final CountDownLatch finished;
+    private final List<Process> processes = new ArrayList<>(); // guarded by itself
+    private final ExecutorService connections = Executors.newCachedThreadPool();
+    private final PrintWriter records;
+    private int restarts;
+
+    // merged statistics, guarded by this
+    private int winsA;
+    private int winsB;
+    private int draws;
+    private int whiteWins;
+    private int blackWins;
+    private long scoreA;
+    private long moves;
+    private int failed;
+
+    /**
+     * A game to play.
+     */
+    static class Game {
+        final int id;
+        final String opening;
+        final boolean aIsWhite;
+        int attempts;
+
+        Game(int id, String opening, boolean aIsWhite) {
+            this.id = id;
+            this.opening = opening;
+            this.aIsWhite = aIsWhite;
+        }
+    }
+
+    /**
+     * Creates a coordinator for the given games.
+     *
+     * @param games   the games to play
+     * @param millis  time per move in milliseconds
+     * @param engineA options of engine A
+     * @param engineB options of engine B
+     * @param records receives the record of every game
+     */
+    public OthelloSelfPlayCoordinator(List<Game> games, int millis, String engineA, String engineB,
+                                      PrintWriter records) {
+        this.pending.addAll(games);
+        this.finished = new CountDownLatch(games.size());
+        this.millis = millis;
+        this.engineA = engineA;
+        this.engineB = engineB;
+        this.records = records;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int millis = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int openingMoves = args.length > 3 ? Integer.parseInt(args[3]) : 6;
+        String engineA = args.length > 4 ? args[4] : "default";
+        String engineB = args.length > 5 ? args[5] : "default";
+        Path file = Paths.get(args.length > 6 ? args[6] : "selfplay.txt");
+        int port = args.length > 7 ? Integer.parseInt(args[7]) : 0;
+        InetAddress address = args.length > 8 ? InetAddress.getByName(args[8]) : InetAddress.getLoopbackAddress();
+
+        List<Game> list = new ArrayList<>();
+        Random random = new Random(1);
+        for (int id = 0; id < games; id += 2) {
+            String opening = opening(openingMoves, random);
+            list.add(new Game(id, opening, true));
+            if (id + 1 < games) {
+                list.add(new Game(id + 1, opening, false));
+            }
+        }
+
+        try (ServerSocket server = new ServerSocket(port, 50, address);
+             PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            OthelloSelfPlayCoordinator coordinator = new OthelloSelfPlayCoordinator(list, millis, engineA, engineB, out);
+            System.out.println("listening on " + server.getInetAddress().getHostAddress() + " port "
+                    + server.getLocalPort());
+            long start = System.currentTimeMillis();
+            coordinator.run(server, workers);
+            coordinator.printStatistics(System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Returns an opening of random legal moves from the initial position, as a record without score, or "-".
+     */
+    static String opening(int length, Random random) {
+        OthelloPosition position = new OthelloPosition(OthelloGameRecord.INITIAL_POSITION);
+        StringBuilder opening = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            LinkedList<OthelloAction> moves = position.getMoves();
+            if (moves.size() == 0) {
+                break;
+            }
+            OthelloAction action = moves.get(random.nextInt(moves.size()));
+            try {
+                position = position.makeMove(action);
+            } catch (IllegalMoveException e) {
+                throw new IllegalStateException(e);
+            }
+            opening.append(OthelloGameRecord.square(action));
+        }
+        return opening.length() == 0 ? "-" : opening.toString();
+    }
+
+    /**
+     * Starts the local workers, serves all connecting workers and returns when every game is played.
+     */
+    public void run(ServerSocket server, int workers) throws IOException, InterruptedException {
+        Thread acceptor = new Thread(() -> accept(server), "accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        // local workers connect to the address the coordinator listens on, through loopback if that is all of them
+        InetAddress address = server.getInetAddress();
+        String host = address.isAnyLocalAddress() ? InetAddress.getLoopbackAddress().getHostAddress()
+                : address.getHostAddress();
+        synchronized (processes) {
+            for (int i = 0; i < workers; i++) {
+                processes.add(startWorker(host, server.getLocalPort()));
+            }
+        }
+        // restart workers that died before all games are played
+        while (!finished.await(500, TimeUnit.MILLISECONDS)) {
+            synchronized (processes) {
+                for (int i = 0; i < processes.size(); i++) {
+                    Process process = processes.get(i);
+                    if (!process.isAlive()) {
+                        System.err.println("worker " + process.pid() + " exited with status " + process.exitValue()
+                                + ", restarting");
+                        restarts++;
+                        processes.set(i, startWorker(host, server.getLocalPort()));
+                    }
+                }
+            }
+        }
+        // the workers are told to stop, kill the ones that do not
+        List<Process> started;
+        synchronized (processes) {
+            started = new ArrayList<>(processes);
+        }
+        for (Process process : started) {
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+        connections.shutdownNow();
+    }
+
+    private void accept(ServerSocket server) {
+        try {
+            while (!server.isClosed()) {
+                Socket socket = server.accept();
+                connections.execute(() -> handle(socket));
+            }
+        } catch (IOException e) {
+            // the server socket was closed
+        }
+    }
+
+    /**
+     * Starts a worker JVM with the class path of this one, connecting to this coordinator.
+     */
+    private static Process startWorker(String host, int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            command.add("--add-modules");
+            command.add("jdk.incubator.vector");
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("OthelloSelfPlayWorker");
+        command.add(host);
+        command.add(Integer.toString(port));
+        return new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    /**
+     * Serves one worker: gives it games until none are left. If the connection breaks, or the worker does not answer
+     * within its lease, the game of the worker is handed out again.
+     */
+    private void handle(Socket socket) {
+        Game game = null;
+        long pid = -1;
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII), true)) {
+            socket.setSoTimeout(LEASE_MOVES * millis + LEASE_SLACK);
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.trim().split("\\s+", 3);
+                if (parts[0].equals("ready") && parts.length > 1) {
+                    pid = Long.parseLong(parts[1]);
+                }
+                if (game != null) {
+                    if (parts.length < 3 || !parts[1].equals(Integer.toString(game.id))) {
+                        // not the answer to the game the worker is playing
+                        continue;
+                    }
+                    if (parts[0].equals("result")) {
+                        finish(game, OthelloGameRecord.parse(parts[2]));
+                    } else {
+                        System.err.println("game " + game.id + ": " + parts[2]);
+                        retry(game);
+                    }
+                    game = null;
+                }
+                game = next();
+                if (game == null) {
+                    out.println("stop");
+                    return;
+                }
+                String white = game.aIsWhite ? engineA : engineB;
+                String black = game.aIsWhite ? engineB : engineA;
+                out.println("game " + game.id + " " + millis + " " + game.opening + " " + white + " " + black);
+            }
+        } catch (SocketTimeoutException e) {
+            System.err.println("worker " + (pid < 0 ? socket.getRemoteSocketAddress() : pid)
+                    + " did not answer in time" + (game == null ? "" : ", game " + game.id + " is given to another"));
+            kill(pid);
+        } catch (IOException | IllegalArgumentException e) {
+            // the worker died or sent garbage, its game is retried below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (game != null) {
+            retry(game);
+        }
+    }
+
+    /**
+     * Kills the local worker with the given process id, it is then restarted. Workers on other machines are not
+     * known by their id.
+     */
+    private void kill(long pid) {
+        synchronized (processes) {
+            for (Process process : processes) {
+                if (process.pid() == pid) {
+                    process.destroyForcibly();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the next game to play, or null when all games are played. Waits while the remaining games are being
+     * played, one of them may come back.
+     */
+    private Game next() throws InterruptedException {
+        while (finished.getCount() > 0) {
+            Game game = pending.poll(100, TimeUnit.MILLISECONDS);
+            if (game != null) {
+                return game;
+            }
+        }
+        return null;
+    }
+
+    private void retry(Game game) {
+        if (++game.attempts < MAX_ATTEMPTS) {
+            pending.addFirst(game);
+        } else {
+            synchronized (this) {
+                failed++;
+            }
+            finished.countDown();
+        }
+    }
+
+    private synchronized void finish(Game game, OthelloGameRecord record) {
+        records.println(record);
+        records.flush();
+        int score = record.getScore();
+        int forA = game.aIsWhite ? score : -score;
+        if (forA > 0) {
+            winsA++;
+        } else if (forA < 0) {
+            winsB++;
+        } else {
+            draws++;
+        }
+        if (score > 0) {
+            whiteWins++;
+        } else if (score < 0) {
+            blackWins++;
+        }
+        scoreA += forA;
+        moves += record.length();
+        finished.countDown();
+    }
+
+    /**
+     * Prints the merged results of all workers.
+     */
+    public synchronized void printStatistics(long millis) {
+        int played = winsA + winsB + draws;
+        System.out.printf("games: %d played, %d failed, %d worker restarts, %.1f s%n", played, failed, restarts,
+                millis / 1000.0);
+        if (played == 0) {
+            return;
+        }
+        System.out.printf("engine A (%s): %d wins, engine B (%s): %d wins, %d draws%n", engineA, winsA, engineB,
+                winsB, draws);
+        System.out.printf("score of A: %.1f%% (%+.2f discs per game)%n", 100.0 * (winsA + draws / 2.0) / played,
+                (double) scoreA / played);
+        System.out.printf("white wins: %d, black wins: %d, %.1f moves per game%n", whiteWins, blackWins,
+                (double) moves / played);
+    }
+}
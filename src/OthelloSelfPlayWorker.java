@@ -0,0 +1,213 @@
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A worker of the self-play farm. It connects to a coordinator, see
+ * <code>OthelloSelfPlayCoordinator</code>, plays the games it is given and
+ * sends back their records. The connection is a plain TCP socket, so workers
+ * can run on other machines than the coordinator. The protocol has one
+ * message per line:
+ *
+ * <pre>
+ *   worker:      ready &lt;process id&gt;
+ *   coordinator: game &lt;id&gt; &lt;millis per move&gt; &lt;opening&gt; &lt;white engine&gt; &lt;black engine&gt;
+ *   worker:      result &lt;id&gt; &lt;game record&gt;
+ *   coordinator: game ...   or   stop
+ * </pre>
+ *
+ * The opening is a game record without score, the moves played before the
+ * engines take over, or <code>-</code> for none. An engine is
+ * <code>default</code> or a comma separated list of options:
+ * <code>eval=compound|count|moves|ntuple|ntuple:&lt;weights file&gt;</code>,
+ * <code>lmr=off|&lt;moves&gt;:&lt;reduction&gt;</code>, <code>ext=on|off</code> (both off
+ * by default) and
+ * <code>tt=&lt;entries&gt;</code> (0 for no transposition table) for alpha-beta,
+ * or <code>mcts</code> and <code>threads=&lt;n&gt;</code> for Monte Carlo tree
+ * search. A worker that can not play a game answers
+ * <code>error &lt;id&gt; &lt;message&gt;</code>.
+ *
+ * usage: java OthelloSelfPlayWorker &lt;host&gt; &lt;port&gt;
+ */
+
+public class OthelloSelfPlayWorker {
+
+    /** Attempts to connect before giving up, the coordinator may still be starting. */
+    private static final int CONNECT_ATTEMPTS = 20;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length != 2) {
+            System.err.println("usage: java OthelloSelfPlayWorker <host> <port>");
+            System.exit(2);
+        }
+        ExecutorService service = Executors.newSingleThreadExecutor();
+        try (Socket socket = connect(args[0], Integer.parseInt(args[1]));
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII), true)) {
+            out.println("ready " + ProcessHandle.current().pid());
+            String line;
+            while ((line = in.readLine()) != null && !line.equals("stop")) {
+                String[] parts = line.trim().split("\\s+");
+                if (parts.length != 6 || !parts[0].equals("game")) {
+                    out.println("error - expected: game <id> <millis> <opening> <white> <black>");
+                    continue;
+                }
+                try {
+                    int millis = Integer.parseInt(parts[2]);
+                    OthelloGameRecord record = play(millis, parts[3],
+                            engine(parts[4], millis), engine(parts[5], millis), service);
+                    out.println("result " + parts[1] + " " + record);
+                } catch (IllegalArgumentException | IllegalMoveException e) {
+                    out.println("error " + parts[1] + " " + e.getMessage());
+                }
+            }
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
+    private static Socket connect(String host, int port) throws IOException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return new Socket(host, port);
+            } catch (IOException e) {
+                if (attempt == CONNECT_ATTEMPTS) {
+                    throw e;
+                }
+                Thread.sleep(500);
+            }
+        }
+    }
+
+    /**
+     * Plays a game from the opening to the end, every move searched for the given time.
+     *
+     * @param millis  time per move in milliseconds
+     * @param opening the moves before the engines take over, "-" for none
+     * @param white   the engine playing white
+     * @param black   the engine playing black
+     * @param service executor running the searches
+     * @return the record of the game, the opening included
+     */
+    static OthelloGameRecord play(int millis, String opening, OthelloAlgorithm white, OthelloAlgorithm black,
+                                  ExecutorService service) throws IllegalMoveException, InterruptedException {
+        OthelloPosition position = new OthelloPosition(OthelloGameRecord.INITIAL_POSITION);
+        OthelloGameRecord record = new OthelloGameRecord();
+        if (!opening.equals("-")) {
+            for (OthelloAction action : OthelloGameRecord.parse(opening + " 0").getMoves()) {
+                position = position.makeMove(action);
+                record.add(action);
+            }
+        }
+        white.setPlayer(true);
+        black.setPlayer(false);
+        while (true) {
+            LinkedList<OthelloAction> moves = position.getMoves();
+            OthelloAction action;
+            if (moves.size() == 0) {
+                action = new OthelloAction("pass");
+                if (position.makeMove(action).getMoves().size() == 0) {
+                    // neither player can move: the game is over, records do not end with a pass
+                    break;
+                }
+            } else {
+                OthelloAlgorithm engine = position.toMove() ? white : black;
+                long endTime = System.currentTimeMillis() + millis;
+                action = Othello.iterativeDeepening(engine, position, endTime, service);
+            }
+            position = position.makeMove(action);
+            record.add(action);
+        }
+        record.setScore(position.score());
+        return record;
+    }
+
+    /**
+     * Creates the engine described by the options.
+     * @param millis time per move in milliseconds, which sizes the tree of Monte Carlo tree search
+     * @throws IllegalArgumentException if an option is unknown
+     */
+    static OthelloAlgorithm engine(String options, int millis) {
+        OthelloEvaluator evaluator = new OthelloEvaluatorCompound(new OthelloEvaluatorMoves(), new OthelloEvaluatorCount());
+        int lmrMoves = -1;
+        int lmrReduction = -1;
+        boolean extensions = false;
+        int entries = 1 << 20;
+        boolean mcts = false;
+        int threads = 1;
+        if (!options.equals("default")) {
+            for (String option : options.split(",")) {
+                String[] pair = option.split("=", 2);
+                String value = pair.length == 2 ? pair[1] : "";
+                try {
+                    switch (pair[0]) {
+                        case "eval":
+                            evaluator = evaluator(value);
+                            break;
+                        case "lmr":
+                            if (value.equals("off")) {
+                                lmrMoves = 0;
+                                lmrReduction = 0;
+                            } else {
+                                String[] lmr = value.split(":");
+                                lmrMoves = Integer.parseInt(lmr[0]);
+                                lmrReduction = Integer.parseInt(lmr[1]);
+                            }
+                            break;
+                        case "ext":
+                            extensions = !value.equals("off");
+                            break;
+                        case "tt":
+                            entries = Integer.parseInt(value);
+                            break;
+                        case "mcts":
+                            mcts = true;
+                            break;
+                        case "threads":
+                            threads = Integer.parseInt(value);
+                            break;
+                        default:
+                            throw new IllegalArgumentException("unknown engine option " + option);
+                    }
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    throw new IllegalArgumentException("bad engine option " + option);
+                }
+            }
+        }
+        if (mcts) {
+            return new OthelloAlgorithmMCTS(OthelloAlgorithmMCTS.nodesFor(millis, threads), threads);
+        }
+        OthelloAlgorithmAlphaBeta algorithm = new OthelloAlgorithmAlphaBeta(evaluator,
+                entries > 0 ? new OthelloTranspositionTableLockless(entries) : null);
+        if (lmrMoves >= 0) {
+            algorithm.setLateMoveReductions(lmrMoves, lmrReduction);
+        }
+        algorithm.setExtensions(extensions);
+        return algorithm;
+    }
+
+    private static OthelloEvaluator evaluator(String name) {
+        switch (name) {
+            case "compound":
+                return new OthelloEvaluatorCompound(new OthelloEvaluatorMoves(), new OthelloEvaluatorCount());
+            case "count":
+                return new OthelloEvaluatorCount();
+            case "moves":
+                return new OthelloEvaluatorMoves();
+            case "ntuple":
+                return new OthelloEvaluatorNTuple();
+            default:
+                if (name.startsWith("ntuple:")) {
+                    try {
+                        return new OthelloEvaluatorNTuple(name.substring("ntuple:".length()));
+                    } catch (IOException e) {
+                        throw new IllegalArgumentException("can not read weights " + name.substring(7));
+                    }
+                }
+                throw new IllegalArgumentException("unknown evaluator " + name);
+        }
+    }
+}
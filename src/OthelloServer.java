@@ -0,0 +1,192 @@
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A server that plays many games at the same time in one JVM. Clients connect
+ * over TCP and send one request per line:
+ *
+ * <pre>
+ *   &lt;session&gt; &lt;board&gt; &lt;time&gt;   search the board (65 characters, 37 for 6x6) for at most time seconds
+ *   end &lt;session&gt;                forget the state of a finished game
+ * </pre>
+ *
+ * Each request is answered with a line containing the move, e.g.
+ * <code>(3,5)</code> or <code>pass</code>, <code>ok</code> for
+ * <code>end</code>, or <code>error</code> followed by a message.
+ *
+ * Connections are handled on virtual threads if the JVM supports them, and
+ * on a cached thread pool otherwise. The searches themselves run on a fixed
+ * pool of worker threads. Every search depth is a separate task in the FIFO
+ * queue of that pool, and every session has at most one search at a time, so
+ * all sessions take turns on the workers. If the workers are too busy to even
+ * finish depth 1 in time, the first legal move is played. Each session keeps its own
+ * <code>OthelloAlgorithmAlphaBeta</code>, which is only a few fields large;
+ * optionally all sessions share one lockless transposition table. Since the
+ * searches of many games run at the same time, the entries in that table are
+ * aged by the server at fixed intervals, not by every new search.
+ *
+ * usage: java OthelloServer [port] [workers] [table entries, 0 for none]
+ */
+
+public class OthelloServer {
+
+    /** Sessions that have not been used for this long are removed. */
+    private static final long SESSION_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+
+    /** The entries of the transposition table are aged this often, in seconds. */
+    private static final long AGE_INTERVAL = 10;
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final OthelloEvaluator evaluator;
+    private final OthelloTranspositionTableLockless table;
+    private final ExecutorService workers;
+    private final ExecutorService connections;
+
+    /**
+     * The state of one game.
+     */
+    private static class Session {
+        final OthelloAlgorithmAlphaBeta algorithm;
+        /** Held during a search; a lock, not a monitor, does not pin the virtual thread of the connection. */
+        final ReentrantLock lock = new ReentrantLock();
+        volatile long lastUsed = System.currentTimeMillis();
+
+        Session(OthelloAlgorithmAlphaBeta algorithm) {
+            this.algorithm = algorithm;
+        }
+    }
+
+    /**
+     * Creates a server.
+     *
+     * @param workers number of threads searching at the same time
+     * @param table   transposition table shared by all sessions, set to be shared, may be null
+     */
+    public OthelloServer(int workers, OthelloTranspositionTableLockless table) {
+        this.evaluator = new OthelloEvaluatorCompound(new OthelloEvaluatorMoves(), new OthelloEvaluatorCount());
+        this.table = table;
+        this.workers = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>());
+        this.connections = newConnectionExecutor();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7777;
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int entries = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+        OthelloTranspositionTableLockless table = null;
+        if (entries > 0) {
+            table = new OthelloTranspositionTableLockless(entries);
+            table.setShared(true);
+        }
+        new OthelloServer(workers, table).serve(new ServerSocket(port));
+    }
+
+    /**
+     * Accept connections until the socket is closed.
+     */
+    public void serve(ServerSocket server) throws IOException {
+        ScheduledExecutorService cleaner = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "session-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        cleaner.scheduleWithFixedDelay(this::removeIdleSessions, 1, 1, TimeUnit.MINUTES);
+        if (table != null) {
+            cleaner.scheduleWithFixedDelay(table::nextAge, AGE_INTERVAL, AGE_INTERVAL, TimeUnit.SECONDS);
+        }
+        try {
+            while (!server.isClosed()) {
+                Socket socket = server.accept();
+                connections.execute(() -> handle(socket));
+            }
+        } finally {
+            cleaner.shutdownNow();
+            workers.shutdownNow();
+            connections.shutdownNow();
+        }
+    }
+
+    /**
+     * Answer the requests of one connection.
+     */
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII), true)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String answer;
+                try {
+                    answer = answer(line.trim());
+                } catch (RuntimeException e) {
+                    // e.g. a board with other characters than W, B, E, X and O, the connection stays usable
+                    answer = "error " + e;
+                }
+                out.println(answer);
+            }
+        } catch (IOException e) {
+            // the client closed the connection
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Answer a single request.
+     */
+    String answer(String request) throws InterruptedException {
+        String[] parts = request.split("\\s+");
+        if (parts.length == 2 && parts[0].equals("end")) {
+            sessions.remove(parts[1]);
+            return "ok";
+        }
+        if (parts.length != 3 || (parts[1].length() != 65 && parts[1].length() != 37)) {
+            return "error expected: <session> <board> <time> or end <session>";
+        }
+        int limit;
+        try {
+            limit = Integer.parseInt(parts[2]);
+        } catch (NumberFormatException e) {
+            return "error time limit is not a number";
+        }
+        long endTime = System.currentTimeMillis() + limit * 950L;
+
+        Session session = sessions.computeIfAbsent(parts[0],
+                id -> new Session(new OthelloAlgorithmAlphaBeta(evaluator, table)));
+        OthelloAction action;
+        // one search per session at a time, a session can not take more than one worker
+        session.lock.lockInterruptibly();
+        try {
+            session.lastUsed = System.currentTimeMillis();
+            session.algorithm.setPlayer(parts[1].charAt(0) == 'W');
+            action = Othello.iterativeDeepening(session.algorithm, new OthelloPosition(parts[1]), endTime, workers);
+            session.lastUsed = System.currentTimeMillis();
+        } finally {
+            session.lock.unlock();
+        }
+        return action.toString();
+    }
+
+    private void removeIdleSessions() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(session -> now - session.lastUsed > SESSION_TIMEOUT);
+    }
+
+    /**
+     * Returns an executor starting a virtual thread per task, or a cached thread pool if the JVM has no virtual
+     * threads.
+     */
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
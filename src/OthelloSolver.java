@@ -0,0 +1,661 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exact solver for small boards, by default for the start position of the 6x6
+ * game. It searches to the end of the game with negamax alpha-beta on
+ * bitboards (<code>OthelloBitboard</code>) and stores the results in a
+ * lockless transposition table shared by all threads.
+ *
+ * The root is searched with null windows only: first whether the game is
+ * won, drawn or lost, then, as in MTD(f), whether the score is above or
+ * below the last bound found, until both bounds meet. Each of these searches
+ * reuses the bounds the earlier ones stored in the table.
+ *
+ * The first plies are searched in parallel on a fork/join pool, "young
+ * brothers wait": the first (best ordered) move of a node is searched first,
+ * then its siblings are searched at the same time. Every sibling tests
+ * whether it beats the best value its node has found so far when it starts,
+ * so the bound improves while the siblings run. The threads help each other
+ * through the table, and idle threads steal the subtrees of busy ones.
+ *
+ * Near the root, moves that a symmetry of the position maps onto an earlier
+ * move are skipped; the start position has four equivalent first moves.
+ * Moves are ordered by the table move, then, far from the end, by a shallow
+ * search of each move, closer to the end by the mobility of the opponent
+ * after the move (fastest first). In the last few moves the empty squares in
+ * the quadrants with an odd number of empty squares are tried first (parity),
+ * without generating moves or using the table.
+ *
+ * usage: java OthelloSolver [board] [threads] [table entries]
+ *        java OthelloSolver --scaling [board] [max threads] [table entries]
+ *
+ * The board is a string of length 37 (6x6) or 65; with --scaling the position
+ * is solved with 1, 2, 4, ... threads, each with a new table.
+ */
+
+public class OthelloSolver {
+
+    /** The start position of the 6x6 game, white moves first as in the 8x8 game of this program. */
+    public static final String SMALL_INITIAL_POSITION = "WEEEEEEEEEEEEEEOXEEEEXOEEEEEEEEEEEEEE";
+
+    /** Nodes this many plies from the root are split over the threads. */
+    private static final int SPLIT_PLIES = 4;
+
+    /** Positions with fewer empty squares are not stored in the table, they are cheaper to search again. */
+    private static final int TABLE_EMPTIES = 5;
+
+    /** Positions with fewer empty squares order their moves by parity instead of by mobility. */
+    private static final int MOBILITY_EMPTIES = 7;
+
+    /** Positions with at most this many empty squares try the empty squares by parity, without generating moves. */
+    private static final int SHALLOW_EMPTIES = 4;
+
+    /** Positions with at least this many empty squares order their moves by a shallow search. */
+    private static final int SORT_EMPTIES = 16;
+
+    /** Depth of the shallow search ordering the moves. */
+    private static final int SORT_DEPTH = 3;
+
+    private final OthelloBitboard board;
+    private final OthelloTranspositionTable table;
+    private final ForkJoinPool pool;
+    private final LongAdder nodes = new LongAdder();
+
+    /** The squares of each quadrant of the board, for the parity of the empty squares. */
+    private final long[] quadrants = new long[4];
+
+    /** symmetries[t][square] is the square the t-th rotation or reflection of the board moves the square to. */
+    private final int[][] symmetries = new int[7][];
+
+    /**
+     * Creates a solver.
+     *
+     * @param size    the size of the board, 6 or 8
+     * @param entries the minimum number of entries of the transposition table
+     * @param threads the number of threads searching
+     */
+    public OthelloSolver(int size, int entries, int threads) {
+        this.board = OthelloBitboard.of(size);
+        this.table = new OthelloTranspositionTableLockless(entries);
+        this.pool = new ForkJoinPool(threads);
+        for (int t = 0; t < symmetries.length; t++) {
+            // every symmetry apart from the identity is a combination of transposing and mirroring rows or columns
+            int code = t + 1;
+            symmetries[t] = new int[size * size];
+            for (int row = 0; row < size; row++) {
+                for (int column = 0; column < size; column++) {
+                    int r = (code & 1) != 0 ? column : row;
+                    int c = (code & 1) != 0 ? row : column;
+                    r = (code & 2) != 0 ? size - 1 - r : r;
+                    c = (code & 4) != 0 ? size - 1 - c : c;
+                    symmetries[t][row * size + column] = r * size + c;
+                }
+            }
+        }
+        int half = size / 2;
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                quadrants[(row < half ? 0 : 2) + (column < half ? 0 : 1)] |= 1L << (row * size + column);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        boolean scaling = args.length > 0 && args[0].equals("--scaling");
+        int first = scaling ? 1 : 0;
+        String board = args.length > first ? args[first] : SMALL_INITIAL_POSITION;
+        int threads = args.length > first + 1 ? Integer.parseInt(args[first + 1])
+                : Runtime.getRuntime().availableProcessors();
+        int entries = args.length > first + 2 ? Integer.parseInt(args[first + 2]) : 1 << 22;
+
+        OthelloPosition position = new OthelloPosition(board);
+        long baseline = 0;
+        for (int t = scaling ? 1 : threads; t <= threads; t = t < threads && t * 2 > threads ? threads : t * 2) {
+            OthelloSolver solver = new OthelloSolver(position.getSize(), entries, t);
+            long start = System.nanoTime();
+            OthelloAction action = solver.solve(position);
+            long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            solver.shutdown();
+            if (baseline == 0) {
+                baseline = millis;
+            }
+            System.out.printf("threads %d: score %d, best move %s, %d nodes, %d ms, %d nodes/s, speedup %.2f%n", t,
+                    action.getValue(), action, solver.getNodes(), millis, solver.getNodes() * 1000 / millis,
+                    (double) baseline / millis);
+            if (!scaling) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Solves the position.
+     *
+     * @return the best move of the player to move, with the final score (#white discs - #black discs) with perfect
+     * play of both players as its value; a pass move if the player has to pass
+     */
+    public OthelloAction solve(OthelloPosition position) {
+        long white = OthelloBitboard.discs(position, true);
+        long black = OthelloBitboard.discs(position, false);
+        long own = position.toMove() ? white : black;
+        long opponent = position.toMove() ? black : white;
+        int limit = board.size() * board.size();
+
+        // win, draw or loss: the result is exact if it is 0, else a bound the exact score is searched from
+        int lower = -limit;
+        int upper = limit;
+        int move = OthelloTranspositionEntry.NO_MOVE;
+        int value = pool.invoke(new Search(own, opponent, -1, 1, 0, false));
+        if (value <= -1) {
+            upper = value;
+        } else if (value >= 1) {
+            lower = value;
+            move = rootMove(own, opponent);
+        } else {
+            lower = upper = 0;
+            move = rootMove(own, opponent);
+        }
+        // then test with null windows whether the score is above or below the last value, until the bounds meet
+        while (lower < upper) {
+            int beta = value == lower ? value + 1 : value;
+            value = pool.invoke(new Search(own, opponent, beta - 1, beta, 0, false));
+            if (value < beta) {
+                upper = value;
+            } else {
+                // the move that reaches the lower bound, with the final lower bound it is a best move
+                lower = value;
+                move = rootMove(own, opponent);
+            }
+        }
+        if (move == OthelloTranspositionEntry.NO_MOVE && board.moves(own, opponent) != 0) {
+            // the score is the lowest possible and no search failed high: find a move reaching it
+            pool.invoke(new Search(own, opponent, lower - 1, lower, 0, false));
+            move = rootMove(own, opponent);
+        }
+
+        OthelloAction action;
+        if (board.moves(own, opponent) == 0 || move == OthelloTranspositionEntry.NO_MOVE) {
+            action = new OthelloAction("pass");
+        } else {
+            action = board.action(move);
+        }
+        action.setValue(position.toMove() ? lower : -lower);
+        return action;
+    }
+
+    /** Returns the number of positions searched. */
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    /** Stops the threads of the solver. */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static long key(long own, long opponent) {
+        return OthelloPosition.mix(own * 0x9E3779B97F4A7C15L ^ OthelloPosition.mix(opponent));
+    }
+
+    /** Returns the move the table holds for the root, the best move of the last search. */
+    private int rootMove(long own, long opponent) {
+        long entry = table.probe(key(own, opponent));
+        return entry == 0 ? OthelloTranspositionEntry.NO_MOVE : OthelloTranspositionEntry.move(entry);
+    }
+
+    /**
+     * The search of one node. Nodes near the root split their moves into parallel subtasks, the others are searched
+     * sequentially by the thread running the task.
+     */
+    private class Search extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final long own;
+        private final long opponent;
+        private final int alpha;
+        private final int beta;
+        private final int ply;
+        private final boolean passed;
+        private long count;
+
+        Search(long own, long opponent, int alpha, int beta, int ply, boolean passed) {
+            this.own = own;
+            this.opponent = opponent;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.ply = ply;
+            this.passed = passed;
+        }
+
+        protected Integer compute() {
+            int empties = Long.bitCount(board.full() & ~(own | opponent));
+            int value = ply < SPLIT_PLIES && empties >= MOBILITY_EMPTIES ? split()
+                    : search(own, opponent, alpha, beta, passed);
+            nodes.add(count);
+            return value;
+        }
+
+        /**
+         * Searches the first move, then all other moves in parallel.
+         */
+        private int split() {
+            count++;
+            long moves = board.moves(own, opponent);
+            if (moves == 0) {
+                if (passed || board.moves(opponent, own) == 0) {
+                    return Long.bitCount(own) - Long.bitCount(opponent);
+                }
+                return -new Search(opponent, own, -beta, -alpha, ply + 1, true).compute();
+            }
+            int a = alpha;
+            int b = beta;
+            long key = key(own, opponent);
+            int tableMove = OthelloTranspositionEntry.NO_MOVE;
+            long entry = table.probe(key);
+            if (entry != 0) {
+                tableMove = OthelloTranspositionEntry.move(entry);
+                int stored = OthelloTranspositionEntry.value(entry);
+                int bound = OthelloTranspositionEntry.bound(entry);
+                if (bound != OthelloTranspositionEntry.UPPER && stored > a) {
+                    a = stored;
+                }
+                if (bound != OthelloTranspositionEntry.LOWER && stored < b) {
+                    b = stored;
+                }
+                if (a >= b) {
+                    return stored;
+                }
+            }
+            int[] squares = new int[Long.bitCount(moves)];
+            order(own, opponent, moves, tableMove, squares);
+            squares = distinct(own, opponent, squares);
+
+            // young brothers wait: the first move gives the bound for the others
+            long flips = board.flips(own, opponent, squares[0]);
+            int value = -new Search(opponent & ~flips, own | flips | 1L << squares[0], -b, -a, ply + 1, false)
+                    .compute();
+            int bestMove = squares[0];
+            if (value < b && squares.length > 1) {
+                Best best = new Best(value, bestMove);
+                Sibling[] siblings = new Sibling[squares.length - 1];
+                for (int i = 1; i < squares.length; i++) {
+                    siblings[i - 1] = new Sibling(best, i, squares[i], a, b);
+                }
+                invokeAll(siblings);
+                value = best.value();
+                bestMove = best.move();
+            }
+            store(key, value, a, b, own, opponent, bestMove);
+            return value;
+        }
+
+        /**
+         * A move after the first one of a split node. It tests with a null window whether it is better than the
+         * best move of the node so far, and only if it is searches it again for its value.
+         */
+        private class Sibling extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            private final Best best;
+            private final int index;
+            private final int square;
+            private final int alpha;
+            private final int beta;
+
+            Sibling(Best best, int index, int square, int alpha, int beta) {
+                this.best = best;
+                this.index = index;
+                this.square = square;
+                this.alpha = alpha;
+                this.beta = beta;
+            }
+
+            protected void compute() {
+                int bound = Math.max(alpha, best.value());
+                if (bound >= beta) {
+                    // an earlier sibling already caused the cutoff
+                    return;
+                }
+                long flips = board.flips(own, opponent, square);
+                long nextOwn = opponent & ~flips;
+                long nextOpponent = own | flips | 1L << square;
+                int value = -new Search(nextOwn, nextOpponent, -bound - 1, -bound, ply + 1, false).compute();
+                if (value > bound && value < beta) {
+                    // better than the best move so far: search it again for its value
+                    bound = Math.max(alpha, best.value());
+                    if (bound < beta) {
+                        value = -new Search(nextOwn, nextOpponent, -beta, -bound, ply + 1, false).compute();
+                    }
+                }
+                best.offer(value, index, square);
+            }
+        }
+
+        /**
+         * Negamax alpha-beta search to the end of the game.
+         *
+         * @return the final score from the view of the player to move
+         */
+        private int search(long own, long opponent, int alpha, int beta, boolean passed) {
+            long empty = board.full() & ~(own | opponent);
+            int empties = Long.bitCount(empty);
+            if (empties <= SHALLOW_EMPTIES) {
+                return shallow(own, opponent, empty, alpha, beta, passed);
+            }
+            count++;
+            long moves = board.moves(own, opponent);
+            if (moves == 0) {
+                if (passed || board.moves(opponent, own) == 0) {
+                    // neither player can move: the game is over
+                    return Long.bitCount(own) - Long.bitCount(opponent);
+                }
+                return -search(opponent, own, -beta, -alpha, true);
+            }
+
+            long key = 0;
+            int tableMove = OthelloTranspositionEntry.NO_MOVE;
+            int alphaOriginal = alpha;
+            int betaOriginal = beta;
+            if (empties >= TABLE_EMPTIES) {
+                key = key(own, opponent);
+                long entry = table.probe(key);
+                if (entry != 0) {
+                    tableMove = OthelloTranspositionEntry.move(entry);
+                    int stored = OthelloTranspositionEntry.value(entry);
+                    int bound = OthelloTranspositionEntry.bound(entry);
+                    if (bound != OthelloTranspositionEntry.UPPER && stored > alpha) {
+                        alpha = stored;
+                    }
+                    if (bound != OthelloTranspositionEntry.LOWER && stored < beta) {
+                        beta = stored;
+                    }
+                    if (alpha >= beta) {
+                        return stored;
+                    }
+                }
+            }
+
+            int[] squares = new int[Long.bitCount(moves)];
+            if (empties >= MOBILITY_EMPTIES) {
+                order(own, opponent, moves, tableMove, squares);
+            } else {
+                // near the end of the game: the squares of quadrants with an odd number of empty squares first
+                int n = 0;
+                long odd = odd(empty);
+                for (long m = moves & odd; m != 0; m &= m - 1) {
+                    squares[n++] = Long.numberOfTrailingZeros(m);
+                }
+                for (long m = moves & ~odd; m != 0; m &= m - 1) {
+                    squares[n++] = Long.numberOfTrailingZeros(m);
+                }
+            }
+
+            int value = Integer.MIN_VALUE;
+            int bestMove = OthelloTranspositionEntry.NO_MOVE;
+            for (int i = 0; i < squares.length; i++) {
+                long flips = board.flips(own, opponent, squares[i]);
+                long nextOwn = opponent & ~flips;
+                long nextOpponent = own | flips | 1L << squares[i];
+                int child;
+                if (i == 0) {
+                    child = -search(nextOwn, nextOpponent, -beta, -alpha, false);
+                } else {
+                    // principal variation search: a null window only tests whether the move is better than alpha
+                    child = -search(nextOwn, nextOpponent, -alpha - 1, -alpha, false);
+                    if (child > alpha && child < beta) {
+                        child = -search(nextOwn, nextOpponent, -beta, -alpha, false);
+                    }
+                }
+                if (child > value) {
+                    value = child;
+                    bestMove = squares[i];
+                    if (value > alpha) {
+                        alpha = value;
+                        if (alpha >= beta) {
+                            break;
+                        }
+                    }
+                }
+            }
+
+            if (empties >= TABLE_EMPTIES) {
+                store(key, value, alphaOriginal, betaOriginal, own, opponent, bestMove);
+            }
+            return value;
+        }
+
+        /**
+         * Alpha-beta search of the last few moves. The empty squares are tried in parity order, those that flip
+         * nothing are skipped, so no moves are generated.
+         *
+         * @return the final score from the view of the player to move
+         */
+        private int shallow(long own, long opponent, long empty, int alpha, int beta, boolean passed) {
+            count++;
+            if ((empty & empty - 1) == 0) {
+                return empty == 0 ? Long.bitCount(own) - Long.bitCount(opponent)
+                        : lastMove(own, opponent, Long.numberOfTrailingZeros(empty));
+            }
+            long odd = odd(empty);
+            int value = Integer.MIN_VALUE;
+            for (int i = 0; i < 2; i++) {
+                for (long m = empty & (i == 0 ? odd : ~odd); m != 0; m &= m - 1) {
+                    int square = Long.numberOfTrailingZeros(m);
+                    long flips = board.flips(own, opponent, square);
+                    if (flips == 0) {
+                        continue;
+                    }
+                    int child = -shallow(opponent & ~flips, own | flips | 1L << square, empty & ~(1L << square),
+                            -beta, -alpha, false);
+                    if (child > value) {
+                        value = child;
+                        if (value > alpha) {
+                            alpha = value;
+                            if (alpha >= beta) {
+                                return value;
+                            }
+                        }
+                    }
+                }
+            }
+            if (value == Integer.MIN_VALUE) {
+                if (passed) {
+                    // neither player can move: the game is over
+                    return Long.bitCount(own) - Long.bitCount(opponent);
+                }
+                return -shallow(opponent, own, empty, -beta, -alpha, true);
+            }
+            return value;
+        }
+
+        /**
+         * Returns the final score when one empty square is left: the player to move plays it if possible, else the
+         * opponent, else the game ends with the square empty.
+         */
+        private int lastMove(long own, long opponent, int square) {
+            long flips = board.flips(own, opponent, square);
+            if (flips != 0) {
+                return Long.bitCount(own) + 2 * Long.bitCount(flips) + 1 - Long.bitCount(opponent);
+            }
+            flips = board.flips(opponent, own, square);
+            if (flips != 0) {
+                count++;
+                return Long.bitCount(own) - 2 * Long.bitCount(flips) - Long.bitCount(opponent) - 1;
+            }
+            return Long.bitCount(own) - Long.bitCount(opponent);
+        }
+    }
+
+    /**
+     * The best value and move found so far by the moves of a split node, updated by all its siblings.
+     * Of two moves with the same value the one ordered first is kept, so that the result does not depend on which
+     * thread finishes first.
+     */
+    private static class Best {
+        private final AtomicLong packed;
+
+        Best(int value, int square) {
+            packed = new AtomicLong(pack(value, 0, square));
+        }
+
+        int value() {
+            return (int) (packed.get() >> 32);
+        }
+
+        int move() {
+            return (int) packed.get() & 0xFF;
+        }
+
+        void offer(int value, int index, int square) {
+            packed.accumulateAndGet(pack(value, index, square), Math::max);
+        }
+
+        /** Orders by the value, then by the index of the move, the lower the better. */
+        private static long pack(int value, int index, int square) {
+            return (long) value << 32 | (long) (0xFFFF - index) << 8 | square;
+        }
+    }
+
+    /**
+     * Returns the squares of the quadrants with an odd number of empty squares.
+     */
+    private long odd(long empty) {
+        long odd = 0;
+        for (long quadrant : quadrants) {
+            if ((Long.bitCount(empty & quadrant) & 1) != 0) {
+                odd |= quadrant;
+            }
+        }
+        return odd;
+    }
+
+    /**
+     * Returns the moves without those a symmetry of the position maps onto an earlier move: both lead to the same
+     * position up to the symmetry, so they have the same value.
+     */
+    private int[] distinct(long own, long opponent, int[] squares) {
+        int[][] fixing = new int[symmetries.length][];
+        int count = 0;
+        for (int[] symmetry : symmetries) {
+            if (transform(own, symmetry) == own && transform(opponent, symmetry) == opponent) {
+                fixing[count++] = symmetry;
+            }
+        }
+        if (count == 0) {
+            return squares;
+        }
+        int[] kept = new int[squares.length];
+        int n = 0;
+        for (int square : squares) {
+            boolean image = false;
+            for (int i = 0; i < count && !image; i++) {
+                for (int j = 0; j < n && !image; j++) {
+                    image = kept[j] == fixing[i][square];
+                }
+            }
+            if (!image) {
+                kept[n++] = square;
+            }
+        }
+        return Arrays.copyOf(kept, n);
+    }
+
+    /** Returns the squares the symmetry moves the given squares to. */
+    private static long transform(long squares, int[] symmetry) {
+        long result = 0;
+        for (long m = squares; m != 0; m &= m - 1) {
+            result |= 1L << symmetry[Long.numberOfTrailingZeros(m)];
+        }
+        return result;
+    }
+
+    /**
+     * Stores the result of a node, as exact value or as bound depending on the window it was searched with.
+     */
+    private void store(long key, int value, int alpha, int beta, long own, long opponent, int move) {
+        int bound = value <= alpha ? OthelloTranspositionEntry.UPPER
+                : value >= beta ? OthelloTranspositionEntry.LOWER : OthelloTranspositionEntry.EXACT;
+        int empties = Long.bitCount(board.full() & ~(own | opponent));
+        table.store(key, OthelloTranspositionEntry.pack(value, empties, bound, move));
+    }
+
+    /**
+     * Writes the moves into squares in the order they are searched: the table move, then the moves the shallow
+     * search values best for the player, or closer to the end the moves leaving the opponent the fewest moves,
+     * corners first among equals.
+     */
+    private void order(long own, long opponent, long moves, int tableMove, int[] squares) {
+        int[] keys = new int[squares.length];
+        boolean shallowSearch = Long.bitCount(board.full() & ~(own | opponent)) >= SORT_EMPTIES;
+        int n = 0;
+        for (long m = moves; m != 0; m &= m - 1) {
+            int square = Long.numberOfTrailingZeros(m);
+            int key;
+            if (square == tableMove) {
+                key = Integer.MIN_VALUE;
+            } else if (shallowSearch) {
+                // the value for the opponent, the lower the better
+                long flips = board.flips(own, opponent, square);
+                key = estimate(opponent & ~flips, own | flips | 1L << square, SORT_DEPTH, -Integer.MAX_VALUE,
+                        Integer.MAX_VALUE, false);
+            } else {
+                long flips = board.flips(own, opponent, square);
+                long next = own | flips | 1L << square;
+                long replies = board.moves(opponent & ~flips, next);
+                key = Long.bitCount(replies) * 2 + Long.bitCount(replies & board.corners()) * 2
+                        - ((board.corners() >>> square & 1) == 0 ? 0 : 1);
+            }
+            // insertion sort, there are only a few moves
+            int i = n++;
+            while (i > 0 && keys[i - 1] > key) {
+                keys[i] = keys[i - 1];
+                squares[i] = squares[i - 1];
+                i--;
+            }
+            keys[i] = key;
+            squares[i] = square;
+        }
+    }
+
+    /**
+     * Alpha-beta search to a fixed depth, used to order the moves. The evaluation counts the mobility and the
+     * corners of both players, a finished game the discs.
+     *
+     * @return the estimated value for the player to move
+     */
+    private int estimate(long own, long opponent, int depth, int alpha, int beta, boolean passed) {
+        long moves = board.moves(own, opponent);
+        if (depth == 0) {
+            long replies = board.moves(opponent, own);
+            return 4 * (Long.bitCount(moves) - Long.bitCount(replies))
+                    + 16 * (Long.bitCount(own & board.corners()) - Long.bitCount(opponent & board.corners()));
+        }
+        if (moves == 0) {
+            if (passed || board.moves(opponent, own) == 0) {
+                return 100 * (Long.bitCount(own) - Long.bitCount(opponent));
+            }
+            return -estimate(opponent, own, depth, -beta, -alpha, true);
+        }
+        int value = -Integer.MAX_VALUE;
+        for (long m = moves; m != 0; m &= m - 1) {
+            int square = Long.numberOfTrailingZeros(m);
+            long flips = board.flips(own, opponent, square);
+            int child = -estimate(opponent & ~flips, own | flips | 1L << square, depth - 1, -beta, -alpha, false);
+            if (child > value) {
+                value = child;
+                if (value > alpha) {
+                    alpha = value;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,160 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Aggregates the telemetry lines (<code>OthelloMoveTelemetry</code>) of many
+ * games, written by <code>Othello</code> with
+ * <code>-Dothello.telemetry=&lt;file&gt;</code>. For every game phase, and for
+ * all moves together, it prints p50, p99 and maximum of the time used, the
+ * interrupt latency, the depth reached and the nodes, how many moves used more
+ * than their budget or their limit, and histograms of the depth and of the
+ * time used relative to the budget.
+ *
+ * The phases are taken from the empty squares, scaled to the 8x8 board: the
+ * opening has more than 40 empty squares, the endgame at most 20.
+ *
+ * usage: java OthelloTelemetryReport &lt;telemetry file&gt; [more files]
+ */
+
+public class OthelloTelemetryReport {
+
+    private static final String[] PHASES = {"opening", "midgame", "endgame"};
+
+    /** Upper ends of the buckets of the time histogram, in percent of the budget. */
+    private static final int[] TIME_BUCKETS = {50, 90, 100, 105, Integer.MAX_VALUE};
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("At least one argument is required: a telemetry file.");
+            return;
+        }
+        List<List<OthelloMoveTelemetry>> phases = new ArrayList<>();
+        for (int i = 0; i < PHASES.length; i++) {
+            phases.add(new ArrayList<>());
+        }
+        List<OthelloMoveTelemetry> all = new ArrayList<>();
+        int skipped = 0;
+        for (String file : args) {
+            for (String line : Files.readAllLines(Paths.get(file))) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    OthelloMoveTelemetry move = OthelloMoveTelemetry.parse(line);
+                    all.add(move);
+                    phases.get(phase(move)).add(move);
+                } catch (IllegalArgumentException e) {
+                    // e.g. a line cut off by a killed engine
+                    skipped++;
+                }
+            }
+        }
+        if (skipped > 0) {
+            System.out.println(skipped + " lines skipped");
+        }
+        for (int i = 0; i < PHASES.length; i++) {
+            print(PHASES[i], phases.get(i));
+        }
+        print("all", all);
+    }
+
+    /**
+     * Returns the index of the phase of the move.
+     */
+    static int phase(OthelloMoveTelemetry move) {
+        int squares = move.getPosition().length() - 1;
+        int empties = move.getEmpties() * 64 / squares;
+        return empties > 40 ? 0 : empties > 20 ? 1 : 2;
+    }
+
+    /**
+     * Prints the statistics of the moves of one phase.
+     */
+    private static void print(String name, List<OthelloMoveTelemetry> moves) {
+        System.out.println(name + ": " + moves.size() + " moves");
+        if (moves.isEmpty()) {
+            return;
+        }
+        int n = moves.size();
+        long[] time = new long[n];
+        long[] latency = new long[n];
+        long[] depth = new long[n];
+        long[] nodes = new long[n];
+        int overBudget = 0;
+        int overLimit = 0;
+        int interrupted = 0;
+        TreeMap<Long, Integer> depths = new TreeMap<>();
+        int[] timeBuckets = new int[TIME_BUCKETS.length];
+        for (int i = 0; i < n; i++) {
+            OthelloMoveTelemetry move = moves.get(i);
+            time[i] = move.getTime();
+            depth[i] = move.getDepth();
+            nodes[i] = move.getNodes();
+            if (move.getInterrupted() > 0) {
+                latency[interrupted++] = move.getLatency();
+            }
+            if (move.getTime() > move.getBudget()) {
+                overBudget++;
+            }
+            // the startup of the JVM counts against the limit too
+            if (move.getLimit() > 0 && move.getStartup() + move.getTime() > move.getLimit()) {
+                overLimit++;
+            }
+            depths.merge(depth[i], 1, Integer::sum);
+            long percent = move.getBudget() > 0 ? move.getTime() * 100 / move.getBudget() : 0;
+            int bucket = 0;
+            while (percent >= TIME_BUCKETS[bucket]) {
+                bucket++;
+            }
+            timeBuckets[bucket]++;
+        }
+
+        printPercentiles("time ms", time, n);
+        System.out.printf("  %-12s %d (%.1f%%), over limit %d (%.1f%%)%n", "over budget", overBudget,
+                100.0 * overBudget / n, overLimit, 100.0 * overLimit / n);
+        printPercentiles("latency us", latency, interrupted);
+        printPercentiles("depth", depth, n);
+        printPercentiles("nodes", nodes, n);
+
+        StringBuilder histogram = new StringBuilder();
+        for (Long d : depths.keySet()) {
+            histogram.append("  ").append(d).append(": ").append(depths.get(d));
+        }
+        System.out.println("  depths      " + histogram);
+        histogram.setLength(0);
+        int lower = 0;
+        for (int i = 0; i < TIME_BUCKETS.length; i++) {
+            String range = TIME_BUCKETS[i] == Integer.MAX_VALUE ? ">=" + lower + "%" : lower + "-" + TIME_BUCKETS[i] + "%";
+            histogram.append("  ").append(range).append(": ").append(timeBuckets[i]);
+            lower = TIME_BUCKETS[i];
+        }
+        System.out.println("  of budget   " + histogram);
+    }
+
+    /**
+     * Prints p50, p99 and the maximum of the first n values.
+     */
+    private static void printPercentiles(String name, long[] values, int n) {
+        if (n == 0) {
+            System.out.printf("  %-12s -%n", name);
+            return;
+        }
+        long[] sorted = Arrays.copyOf(values, n);
+        Arrays.sort(sorted);
+        System.out.printf("  %-12s p50 %d, p99 %d, max %d%n", name, percentile(sorted, 50), percentile(sorted, 99),
+                sorted[n - 1]);
+    }
+
+    /**
+     * Returns the percentile of the sorted values, by the nearest rank.
+     */
+    static long percentile(long[] sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,25 @@
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event of the time control: the time of a move is up, and
+ * the search of the given depth is interrupted.
+ */
+
+@Name("othello.Timeout")
+@Label("Timeout")
+@Category("Othello")
+@Description("The time limit of a move is reached")
+class OthelloTimeoutEvent extends Event {
+
+    @Label("Depth")
+    @Description("Depth of the interrupted search")
+    int depth;
+
+    @Label("Completed Depth")
+    @Description("Deepest completed search, whose move is played unless the interrupted search found a better one")
+    int completedDepth;
+
+    @Label("Kept Partial Result")
+    @Description("True if the best move of the interrupted search is played")
+    boolean keptPartialResult;
+}
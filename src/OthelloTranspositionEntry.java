@@ -0,0 +1,75 @@
+/**
+ * This class packs the result of a searched position into a single long, so
+ * that a transposition table can store it without allocating objects.
+ *
+ * Layout: bits 0-31 hold the value, bits 32-39 the depth, bits 40-41 the
+ * bound type, bits 42-48 the square of the best move, bits 49-56 the age, and
+ * bit 63 is always set, so that no valid entry is 0.
+ */
+
+public final class OthelloTranspositionEntry {
+
+    /** The value is the exact value of the position. */
+    public static final int EXACT = 0;
+
+    /** The value is a lower bound, the search failed high. */
+    public static final int LOWER = 1;
+
+    /** The value is an upper bound, the search failed low. */
+    public static final int UPPER = 2;
+
+    /** Square stored if there is no best move. */
+    public static final int NO_MOVE = 127;
+
+    private static final long VALID = 1L << 63;
+
+    private OthelloTranspositionEntry() {
+    }
+
+    /**
+     * Pack the result of a search into an entry, with age 0.
+     *
+     * @param value the value of the position
+     * @param depth the depth the position was searched with
+     * @param bound EXACT, LOWER or UPPER
+     * @param move  the square of the best move, see <code>square</code>, or NO_MOVE
+     * @return the entry
+     */
+    public static long pack(int value, int depth, int bound, int move) {
+        return VALID
+                | (value & 0xFFFFFFFFL)
+                | ((long) (depth & 0xFF) << 32)
+                | ((long) (bound & 0x3) << 40)
+                | ((long) (move & 0x7F) << 42);
+    }
+
+    /** Returns the entry with its age set to <code>age</code>. */
+    public static long withAge(long entry, int age) {
+        return (entry & ~(0xFFL << 49)) | ((long) (age & 0xFF) << 49);
+    }
+
+    public static int value(long entry) {
+        return (int) entry;
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 32) & 0xFF;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> 40) & 0x3;
+    }
+
+    public static int move(long entry) {
+        return (int) (entry >>> 42) & 0x7F;
+    }
+
+    public static int age(long entry) {
+        return (int) (entry >>> 49) & 0xFF;
+    }
+
+    /** Returns the square index of an action, counting row by row from 0 in the upper left corner. */
+    public static int square(OthelloAction action) {
+        return (action.getRow() - 1) * OthelloPosition.BOARD_SIZE + action.getColumn() - 1;
+    }
+}
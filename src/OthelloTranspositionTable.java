@@ -0,0 +1,28 @@
+/**
+ * This interface defines the mandatory methods for a transposition table,
+ * i.e., a hash table that stores the results of positions that have already
+ * been searched, so that they do not have to be searched again when reached
+ * by another sequence of moves. Positions are identified by their
+ * <code>OthelloPosition.hash()</code>, and the stored results are packed into
+ * a single long by <code>OthelloTranspositionEntry</code>.
+ *
+ * Implementations must be safe to use from several searching threads.
+ */
+
+public interface OthelloTranspositionTable {
+
+	/** Returns the entry stored for the key, or 0 if there is none. */
+	long probe(long key);
+
+	/** Stores the entry for the key. This may replace the entry of another key. */
+	void store(long key, long entry);
+
+	/** Removes all entries from the table. */
+	void clear();
+
+	/**
+	 * Starts a new search, i.e., the search of a new root position. Entries
+	 * stored by earlier searches may be preferred for replacement.
+	 */
+	void newSearch();
+}
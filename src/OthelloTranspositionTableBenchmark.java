@@ -0,0 +1,120 @@
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how the transposition tables scale with the number of threads.
+ * Every thread probes random keys and stores every fourth of them, as a search
+ * does; the keys are drawn from a set twice as large as the table. Each stored
+ * entry holds a value derived from its key, so a probe that returns the entry
+ * of another key is counted as corrupt.
+ *
+ * usage: java OthelloTranspositionTableBenchmark [table entries] [milliseconds per run]
+ */
+
+public class OthelloTranspositionTableBenchmark {
+
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32};
+
+    public static void main(String[] args) throws InterruptedException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+        long duration = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+
+        System.out.printf("%-8s %14s %14s %14s%n", "threads", "lockless", "striped", "synchronized");
+        for (int threads : THREADS) {
+            System.out.printf("%-8d", threads);
+            run(new OthelloTranspositionTableLockless(size), size, threads, duration);
+            run(new OthelloTranspositionTableStriped(size, 1024), size, threads, duration);
+            run(new SynchronizedMapTable(), size, threads, duration);
+            System.out.println();
+        }
+        System.out.println("(operations per second)");
+    }
+
+    /**
+     * Run the benchmark on one table and print the operations per second.
+     */
+    private static void run(OthelloTranspositionTable table, int size, int threads, long duration)
+            throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        LongAdder corrupt = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long[] stop = new long[1];
+        SplittableRandom seeds = new SplittableRandom(42);
+        Thread[] workers = new Thread[threads];
+
+        for (int t = 0; t < threads; t++) {
+            SplittableRandom random = seeds.split();
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long count = 0;
+                long wrong = 0;
+                while ((count & 1023) != 0 || System.nanoTime() < stop[0]) {
+                    // keys from a fixed set, spread over the whole range of longs
+                    long key = mix(random.nextInt(2 * size));
+                    long entry = table.probe(key);
+                    if (entry != 0 && OthelloTranspositionEntry.value(entry) != (int) (key >>> 32)) {
+                        wrong++;
+                    }
+                    if ((count & 3) == 0) {
+                        table.store(key, OthelloTranspositionEntry.pack((int) (key >>> 32), random.nextInt(20),
+                                OthelloTranspositionEntry.EXACT, random.nextInt(64)));
+                    }
+                    count++;
+                }
+                operations.add(count);
+                corrupt.add(wrong);
+            });
+            workers[t].start();
+        }
+
+        long begin = System.nanoTime();
+        stop[0] = begin + duration * 1_000_000;
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        System.out.printf(" %14.0f", operations.sum() * 1e9 / elapsed);
+        if (corrupt.sum() > 0) {
+            System.out.printf(" (%d corrupt)", corrupt.sum());
+        }
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * The baseline: a hash map behind a single lock.
+     */
+    private static class SynchronizedMapTable implements OthelloTranspositionTable {
+        private final Map<Long, Long> map = Collections.synchronizedMap(new HashMap<>());
+
+        public long probe(long key) {
+            Long entry = map.get(key);
+            return entry == null ? 0 : entry;
+        }
+
+        public void store(long key, long entry) {
+            map.put(key, entry);
+        }
+
+        public void clear() {
+            map.clear();
+        }
+
+        public void newSearch() {
+        }
+    }
+}
@@ -0,0 +1,145 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A transposition table that many threads can probe and store to without
+ * locks. Each slot consists of two longs, the key XOR the entry and the entry
+ * itself. Two threads writing the same slot at the same time may leave the
+ * halves of different entries in it; such a torn slot no longer satisfies
+ * <code>check ^ entry == key</code> for any key it could be probed with, so it
+ * reads as a miss instead of returning a wrong result ("lockless hashing",
+ * Hyatt and Mann).
+ *
+ * Slots are grouped into buckets of four, one cache line. A key may be stored
+ * in any slot of its bucket; when the bucket is full, the slot with the
+ * shallowest entry is replaced, where entries of earlier searches count as
+ * shallower the older they are.
+ *
+ * The age counts the searches. When several searches use the table at the
+ * same time, e.g. the games of a server, each of them would age the entries
+ * of the others. Such a table is set to be shared: <code>newSearch</code>
+ * then leaves the age alone, and the owner of the table advances it with
+ * <code>nextAge</code>, e.g. at fixed intervals.
+ */
+
+public class OthelloTranspositionTableLockless implements OthelloTranspositionTable {
+
+    /** Slots per bucket. */
+    private static final int BUCKET = 4;
+
+    /** Depth an entry loses for every search it is old. */
+    private static final int AGE_PENALTY = 8;
+
+    /** Opaque access makes every long read and written atomically, without ordering. */
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] slots;
+    private final int bucketMask;
+    private boolean shared;
+    private volatile int age;
+
+    /**
+     * Creates a table with at least the given number of entries, rounded up to a power of two.
+     */
+    public OthelloTranspositionTableLockless(int size) {
+        this(buckets(size), true);
+    }
+
+    /**
+     * Creates a table with the given number of buckets, a power of two.
+     * @param allocate false if a subclass stores the slots itself
+     */
+    protected OthelloTranspositionTableLockless(int buckets, boolean allocate) {
+        slots = allocate ? new long[buckets * BUCKET * 2] : null;
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * Set whether searches use the table at the same time; the age is then only advanced by <code>nextAge</code>.
+     * Must be set before the table is used.
+     */
+    public void setShared(boolean shared) {
+        this.shared = shared;
+    }
+
+    /** Returns the number of buckets needed for at least the given number of entries, a power of two. */
+    protected static int buckets(int size) {
+        return Integer.highestOneBit(Math.max(1, (size + BUCKET - 1) / BUCKET - 1)) << 1;
+    }
+
+    /** Returns the number of longs needed for the given number of buckets. */
+    protected static long slotCount(int buckets) {
+        return (long) buckets * BUCKET * 2;
+    }
+
+    /** Reads the long at index i. */
+    protected long slot(int i) {
+        return (long) SLOTS.getOpaque(slots, i);
+    }
+
+    /** Writes the long at index i. */
+    protected void setSlot(int i, long value) {
+        SLOTS.setOpaque(slots, i, value);
+    }
+
+    /** Returns the age of the current search. */
+    protected int age() {
+        return age;
+    }
+
+    public long probe(long key) {
+        int first = ((int) key & bucketMask) * BUCKET * 2;
+        for (int i = first; i < first + BUCKET * 2; i += 2) {
+            long entry = slot(i + 1);
+            long check = slot(i);
+            if (entry != 0 && (check ^ entry) == key) {
+                return entry;
+            }
+        }
+        return 0;
+    }
+
+    public void store(long key, long entry) {
+        int currentAge = age();
+        int first = ((int) key & bucketMask) * BUCKET * 2;
+        int victim = first;
+        int victimWorth = Integer.MAX_VALUE;
+        for (int i = first; i < first + BUCKET * 2; i += 2) {
+            long stored = slot(i + 1);
+            long check = slot(i);
+            if (stored == 0 || (check ^ stored) == key) {
+                // an empty slot, or the slot of the same position
+                victim = i;
+                break;
+            }
+            int worth = OthelloTranspositionEntry.depth(stored)
+                    - AGE_PENALTY * ((currentAge - OthelloTranspositionEntry.age(stored)) & 0xFF);
+            if (worth < victimWorth) {
+                victim = i;
+                victimWorth = worth;
+            }
+        }
+        entry = OthelloTranspositionEntry.withAge(entry, currentAge);
+        setSlot(victim, key ^ entry);
+        setSlot(victim + 1, entry);
+    }
+
+    public void clear() {
+        long count = slotCount(bucketMask + 1);
+        for (int i = 0; i < count; i++) {
+            setSlot(i, 0L);
+        }
+    }
+
+    /** Ages the entries, unless the table is shared. */
+    public void newSearch() {
+        if (!shared) {
+            nextAge();
+        }
+    }
+
+    /** Ages the entries: those stored so far are replaced before those stored from now on. */
+    public void nextAge() {
+        age = (age + 1) & 0xFF;
+    }
+}
@@ -0,0 +1,111 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A lockless transposition table kept in a memory-mapped file, so that its
+ * entries survive the end of the process. Since <code>othello.sh</code> starts
+ * a new JVM for every move, this lets every move, and every new game, start
+ * with the results of the earlier searches.
+ *
+ * The file starts with a header of 64 bytes (magic number, version, number of
+ * buckets, a tag identifying the evaluator, and the age of the last search),
+ * followed by the slots. Writes go to the page cache and reach the file even
+ * if the process is killed. A process killed in the middle of writing a slot
+ * leaves a torn slot, which fails the XOR check like any other torn write. A
+ * file with a wrong header or size, e.g. of a process killed while creating
+ * it, is cleared. Several processes may use the same file at the same time.
+ */
+
+public class OthelloTranspositionTableMapped extends OthelloTranspositionTableLockless {
+
+    private static final long MAGIC = 0x4F5448454C4C4F54L; // "OTHELLOT"
+    private static final int VERSION = 1;
+    private static final int HEADER = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 8;
+    private static final int BUCKETS_OFFSET = 12;
+    private static final int TAG_OFFSET = 16;
+    private static final int AGE_OFFSET = 24;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final MappedByteBuffer buffer;
+
+    /**
+     * Opens the table in the given file, or creates it.
+     *
+     * @param file the file of the table
+     * @param size the minimum number of entries, rounded up to a power of two; at most 2^26
+     * @param tag  identifies the evaluator the values were computed with, entries of other evaluators are discarded
+     * @throws IOException if the file can not be opened or mapped
+     * @throws IllegalArgumentException if the table is larger than one mapping can be, 2 GB
+     */
+    @SuppressWarnings("try") // the lock is only held, it is not used in the body
+    public OthelloTranspositionTableMapped(Path file, int size, long tag) throws IOException {
+        super(buckets(size), false);
+        int buckets = buckets(size);
+        long length = HEADER + slotCount(buckets) * Long.BYTES;
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A mapped table has at most 2^26 entries: " + size);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+             FileLock lock = channel.lock()) {
+            boolean valid = channel.size() == length;
+            if (!valid) {
+                channel.truncate(0);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            valid = valid
+                    && (long) LONGS.get(buffer, MAGIC_OFFSET) == MAGIC
+                    && (int) INTS.get(buffer, VERSION_OFFSET) == VERSION
+                    && (int) INTS.get(buffer, BUCKETS_OFFSET) == buckets
+                    && (long) LONGS.get(buffer, TAG_OFFSET) == tag;
+            if (!valid) {
+                // a new or broken file: clear it, and write the header last
+                LONGS.setVolatile(buffer, MAGIC_OFFSET, 0L);
+                clear();
+                INTS.set(buffer, VERSION_OFFSET, VERSION);
+                INTS.set(buffer, BUCKETS_OFFSET, buckets);
+                LONGS.set(buffer, TAG_OFFSET, tag);
+                INTS.set(buffer, AGE_OFFSET, 0);
+                LONGS.setVolatile(buffer, MAGIC_OFFSET, MAGIC);
+            }
+        }
+    }
+
+    protected long slot(int i) {
+        return (long) LONGS.getOpaque(buffer, offset(i));
+    }
+
+    protected void setSlot(int i, long value) {
+        LONGS.setOpaque(buffer, offset(i), value);
+    }
+
+    /** Returns the offset of slot i in the file; the constructor checked that all offsets fit in an int. */
+    private static int offset(int i) {
+        return (int) (HEADER + (long) i * Long.BYTES);
+    }
+
+    protected int age() {
+        return (int) INTS.getOpaque(buffer, AGE_OFFSET);
+    }
+
+    /** The age is kept in the file, so that it keeps counting across processes. */
+    public void nextAge() {
+        INTS.getAndAdd(buffer, AGE_OFFSET, 1);
+    }
+
+    /** Writes the changed pages to the storage device. Not needed to survive a killed process. */
+    public void force() {
+        buffer.force();
+    }
+}
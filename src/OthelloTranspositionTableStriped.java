@@ -0,0 +1,63 @@
+/**
+ * A transposition table that is shared by several threads. The table is
+ * divided into stripes, each guarded by its own lock, so that threads only
+ * block each other when they access entries of the same stripe. A new entry
+ * always replaces the entry in its slot.
+ *
+ * The server shares an <code>OthelloTranspositionTableLockless</code>; this
+ * table is only kept as a baseline of <code>OthelloTranspositionTableBenchmark</code>.
+ */
+
+public class OthelloTranspositionTableStriped implements OthelloTranspositionTable {
+
+    private final long[] keys;
+    private final long[] entries;
+    private final Object[] locks;
+    private final int mask;
+
+    /**
+     * Creates a table with at least the given number of entries and stripes,
+     * both rounded up to a power of two.
+     */
+    public OthelloTranspositionTableStriped(int size, int stripes) {
+        int capacity = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+        int lockCount = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        keys = new long[capacity];
+        entries = new long[capacity];
+        mask = capacity - 1;
+        locks = new Object[Math.min(lockCount, capacity)];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public long probe(long key) {
+        int index = (int) key & mask;
+        synchronized (locks[index & (locks.length - 1)]) {
+            return keys[index] == key ? entries[index] : 0;
+        }
+    }
+
+    public void store(long key, long entry) {
+        int index = (int) key & mask;
+        synchronized (locks[index & (locks.length - 1)]) {
+            keys[index] = key;
+            entries[index] = entry;
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < locks.length; i++) {
+            synchronized (locks[i]) {
+                for (int index = i; index < keys.length; index += locks.length) {
+                    keys[index] = 0;
+                    entries[index] = 0;
+                }
+            }
+        }
+    }
+
+    /** Entries are always replaced, so their age does not matter. */
+    public void newSearch() {
+    }
+}
@@ -20,10 +20,38 @@ fi
 # $(dirname "$0") is the path to where this script is located (don't change this) 
 cd "$(dirname "$0")"
 
+# Set OTHELLO_CACHE to a file to keep a transposition table on disk between moves and games
+java_options=""
+if [ -n "$OTHELLO_CACHE" ]; then
+	java_options="-Dothello.cache=$OTHELLO_CACHE"
+fi
+# Set OTHELLO_ALGORITHM=mcts to play with Monte Carlo tree search instead of alpha-beta
+if [ -n "$OTHELLO_ALGORITHM" ]; then
+	java_options="$java_options -Dothello.algorithm=$OTHELLO_ALGORITHM"
+fi
+# Set OTHELLO_TELEMETRY to a file to log the depth, nodes and time of every move (see OthelloTelemetryReport)
+if [ -n "$OTHELLO_TELEMETRY" ]; then
+	java_options="$java_options -Dothello.telemetry=$OTHELLO_TELEMETRY"
+fi
+
+# Class-data-sharing archive, only classes loaded from a jar can be archived
+# The cds log options keep warnings about a stale archive off stdout
+jar_file=othello.jar
+cds_archive=othello.jsa
+cds_options="-XX:SharedArchiveFile=$cds_archive -Xlog:cds=off -Xlog:cds+dynamic=off"
+
 if [ $do_compile -eq 1 ]; then
 	# Compile the code:
 	javac *.java
+	jar cf $jar_file *.class
+	# Training run: archive all classes loaded while searching the initial position
+	rm -f $cds_archive
+	java -XX:ArchiveClassesAtExit=$cds_archive -Xlog:cds=off -Xlog:cds+dynamic=off -cp $jar_file \
+		Othello WEEEEEEEEEEEEEEEEEEEEEEEEEEEOXEEEEEEXOEEEEEEEEEEEEEEEEEEEEEEEEEEE 1 > /dev/null
+elif [ -f $cds_archive ] && [ -f $jar_file ]; then
+	# Fast start: load the classes from the archive
+	java $cds_options $java_options -cp $jar_file Othello $position $time_limit
 else
 	# Call your Java program with a position and time limit:
-	java Othello $position $time_limit
+	java $java_options Othello $position $time_limit
 fi
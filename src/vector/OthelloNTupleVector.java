@@ -0,0 +1,47 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Computes the tuple indices of <code>OthelloEvaluatorNTuple</code> with the
+ * Vector API: the squares of one element of all tuples are gathered at once,
+ * and the indices of as many tuples as fit in a vector are built side by side.
+ *
+ * This class is kept apart from the other sources, so that they compile and
+ * run without the incubator module. It is compiled on its own with
+ * <code>javac --add-modules jdk.incubator.vector -d . vector/*.java</code>,
+ * and looked up by <code>OthelloEvaluatorNTuple</code> when it is present.
+ */
+
+class OthelloNTupleVector {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private OthelloNTupleVector() {
+    }
+
+    /**
+     * Computes the base 3 index of every tuple.
+     *
+     * @param state    colors of the squares, 0, 1 or 2
+     * @param elements elements[j][t] is the square of the j-th element of tuple t
+     * @param indices  receives the index of every tuple
+     */
+    static void computeIndices(int[] state, int[][] elements, int[] indices) {
+        int t = 0;
+        int bound = SPECIES.loopBound(indices.length);
+        for (; t < bound; t += SPECIES.length()) {
+            IntVector index = IntVector.zero(SPECIES);
+            for (int[] element : elements) {
+                index = index.mul(3).add(IntVector.fromArray(SPECIES, state, 0, element, t));
+            }
+            index.intoArray(indices, t);
+        }
+        for (; t < indices.length; t++) {
+            int index = 0;
+            for (int[] element : elements) {
+                index = index * 3 + state[element[t]];
+            }
+            indices[t] = index;
+        }
+    }
+}